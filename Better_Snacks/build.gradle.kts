@@ -27,13 +27,29 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        unitTests {
+            isIncludeAndroidResources = true
+            all {
+                // -PrecordLayoutCost=true rewrites the SnackbarLayoutCostTest baselines.
+                it.systemProperty("betterSnacks.recordLayoutCost", project.findProperty("recordLayoutCost") ?: "false")
+                // -PrecordAllocations=true rewrites the SnackbarAllocationTest baselines.
+                it.systemProperty("betterSnacks.recordAllocations", project.findProperty("recordAllocations") ?: "false")
+            }
+        }
+    }
 }
 
 dependencies {
 
     implementation(libs.appcompat)
     implementation(libs.material)
+    implementation(libs.lifecycle.process)
+    implementation(libs.lifecycle.viewmodel)
+    implementation(libs.tracing)
     testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
+    testImplementation(libs.test.core)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
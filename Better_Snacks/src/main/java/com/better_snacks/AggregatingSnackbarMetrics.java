@@ -0,0 +1,107 @@
+package com.better_snacks;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe {@link SnackbarMetrics} that keeps a count and a latency histogram per phase.
+ * Histogram buckets are powers of two in microseconds, so percentiles are upper bounds
+ * accurate to a factor of two.
+ */
+public class AggregatingSnackbarMetrics implements SnackbarMetrics {
+
+    private final Histogram[] histograms = new Histogram[Phase.values().length];
+
+    public AggregatingSnackbarMetrics() {
+        for (int i = 0; i < histograms.length; i++)
+            histograms[i] = new Histogram();
+    }
+
+    @Override
+    public void onTiming(Class<? extends BaseSnackbar> type, Phase phase, long durationNanos) {
+        histograms[phase.ordinal()].record(durationNanos);
+    }
+
+    /**
+     * Returns how many times the phase was recorded.
+     */
+    public long getCount(Phase phase) {
+        return histograms[phase.ordinal()].count.get();
+    }
+
+    /**
+     * Returns the mean duration of the phase, or 0 if it was never recorded.
+     */
+    public long getMeanNanos(Phase phase) {
+        Histogram histogram = histograms[phase.ordinal()];
+        long count = histogram.count.get();
+        return count > 0 ? histogram.sum.get() / count : 0;
+    }
+
+    /**
+     * Returns the longest recorded duration of the phase.
+     */
+    public long getMaxNanos(Phase phase) {
+        return histograms[phase.ordinal()].max.get();
+    }
+
+    /**
+     * Returns an upper bound for the given percentile of the phase duration.
+     * @param percentile Value between 0 and 100.
+     */
+    public long getPercentileNanos(Phase phase, double percentile) {
+        return histograms[phase.ordinal()].percentile(percentile);
+    }
+
+    /**
+     * Clears every counter and histogram.
+     */
+    public void reset() {
+        for (Histogram histogram : histograms)
+            histogram.reset();
+    }
+
+    private static final class Histogram {
+        private static final int BUCKETS = 32;
+
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong max = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            long micros = value / 1000;
+            int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            long previous;
+            do {
+                previous = max.get();
+            } while (value > previous && !max.compareAndSet(previous, value));
+        }
+
+        long percentile(double percentile) {
+            long total = count.get();
+            if (total == 0)
+                return 0;
+            long target = (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= Math.max(1, target))
+                    return Math.min(max.get(), (1L << i) * 1000);
+            }
+            return max.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++)
+                buckets.set(i, 0);
+            count.set(0);
+            sum.set(0);
+            max.set(0);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.better_snacks;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.util.LruCache;
+
+import java.util.Arrays;
+
+/**
+ * Style-keyed cache of snackbar backgrounds. Each distinct style is built into a
+ * {@link GradientDrawable} once and handed out through {@link Drawable.ConstantState#newDrawable()}.
+ */
+public final class BackgroundCache implements ComponentCallbacks2 {
+
+    private static final int DEFAULT_MAX_SIZE = 16;
+
+    private static volatile BackgroundCache instance;
+
+    private final LruCache<Key, Drawable.ConstantState> states = new LruCache<>(DEFAULT_MAX_SIZE);
+
+    private BackgroundCache() {
+    }
+
+    /**
+     * Returns the process-wide cache, creating it on first use.
+     * @param context Any context, only used to register for trim-memory callbacks.
+     */
+    public static BackgroundCache getInstance(Context context) {
+        if (instance == null) {
+            synchronized (BackgroundCache.class) {
+                if (instance == null) {
+                    BackgroundCache cache = new BackgroundCache();
+                    context.getApplicationContext().registerComponentCallbacks(cache);
+                    instance = cache;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Sets how many distinct styles are kept before the least recently used one is evicted.
+     * @param maxSize Maximum number of cached styles, must be positive.
+     */
+    public void setMaxSize(int maxSize) {
+        states.resize(maxSize);
+    }
+
+    /**
+     * Drops every cached background.
+     */
+    public void clear() {
+        states.evictAll();
+    }
+
+    /**
+     * Returns a background drawable for the given style. The returned instance shares its
+     * state with every other instance of the same style and must not be mutated in place.
+     */
+    public Drawable obtain(int cornerRadius, Integer backgroundColor, int[] gradientColors,
+                           GradientDrawable.Orientation gradientOrientation,
+                           int borderWidth, int borderColor) {
+        Key key = new Key(cornerRadius, backgroundColor, gradientColors, gradientOrientation,
+                borderWidth, borderColor);
+        return state(key).newDrawable();
+    }
+
+    /**
+     * Returns the shared state for a key, building it on a miss.
+     */
+    Drawable.ConstantState state(Key key) {
+        Drawable.ConstantState state = states.get(key);
+        if (state == null) {
+            state = key.createDrawable().getConstantState();
+            states.put(key, state);
+        }
+        return state;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_UI_HIDDEN)
+            clear();
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    static final class Key {
+        private final int cornerRadius;
+        private final int color;
+        private final int[] gradientColors;
+        private final GradientDrawable.Orientation gradientOrientation;
+        private final int borderWidth;
+        private final int borderColor;
+        private final int hash;
+
+        Key(int cornerRadius, Integer backgroundColor, int[] gradientColors,
+            GradientDrawable.Orientation gradientOrientation, int borderWidth, int borderColor) {
+            boolean gradient = gradientColors != null && gradientColors.length >= 2;
+            boolean border = borderWidth > 0 && borderColor != -1;
+            this.cornerRadius = cornerRadius;
+            this.color = gradient ? 0 : (backgroundColor != null ? backgroundColor : Color.DKGRAY);
+            this.gradientColors = gradient ? gradientColors.clone() : null;
+            this.gradientOrientation = gradient
+                    ? (gradientOrientation != null ? gradientOrientation : GradientDrawable.Orientation.LEFT_RIGHT)
+                    : null;
+            this.borderWidth = border ? borderWidth : 0;
+            this.borderColor = border ? borderColor : -1;
+            int h = cornerRadius;
+            h = 31 * h + color;
+            h = 31 * h + Arrays.hashCode(this.gradientColors);
+            h = 31 * h + (this.gradientOrientation != null ? this.gradientOrientation.hashCode() : 0);
+            h = 31 * h + this.borderWidth;
+            h = 31 * h + this.borderColor;
+            this.hash = h;
+        }
+
+        GradientDrawable createDrawable() {
+            GradientDrawable background = new GradientDrawable();
+            background.setCornerRadius(cornerRadius);
+            if (gradientColors != null) {
+                background.setOrientation(gradientOrientation);
+                background.setColors(gradientColors);
+            } else {
+                background.setColor(color);
+            }
+            if (borderWidth > 0) {
+                background.setStroke(borderWidth, borderColor);
+            }
+            return background;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return cornerRadius == other.cornerRadius
+                    && color == other.color
+                    && borderWidth == other.borderWidth
+                    && borderColor == other.borderColor
+                    && gradientOrientation == other.gradientOrientation
+                    && Arrays.equals(gradientColors, other.gradientColors);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,26 +1,22 @@
 package com.better_snacks;
 
-import static android.view.View.GONE;
-import static android.view.View.VISIBLE;
-
 import android.app.Activity;
 import android.content.Context;
-import android.graphics.Color;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.GradientDrawable;
-import android.media.MediaPlayer;
-import android.os.VibrationEffect;
-import android.os.Vibrator;
-import android.text.TextUtils;
+import android.os.Build;
+import android.view.Choreographer;
 import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.animation.DecelerateInterpolator;
+import android.view.accessibility.AccessibilityManager;
 import android.widget.TextView;
 
-import com.google.android.material.snackbar.Snackbar;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.tracing.Trace;
 
-import java.util.Locale;
+import com.google.android.material.snackbar.BaseTransientBottomBar;
+import com.google.android.material.snackbar.Snackbar;
 
 public abstract class BaseSnackbar {
 
@@ -28,86 +24,521 @@ public abstract class BaseSnackbar {
         NONE, SLIDE_IN_BOTTOM, FADE_IN, SCALE
     }
 
-    protected final View view;
+    /**
+     * How a snackbar is drawn. {@code MATERIAL} uses the Material snackbar layout, {@code LITE}
+     * a single self-drawn view without swipe to dismiss, and {@code AUTO} picks {@code LITE} on
+     * low-RAM devices.
+     */
+    public enum Renderer {
+        MATERIAL, LITE, AUTO
+    }
+
+    private static final int NO_EXIT = -1;
+
+    protected View view;
     protected final String message;
     protected final String actionText;
     protected final int duration;
-    protected final int layoutDirection;
-    protected final boolean userDefinedDirection;
-    protected final Integer backgroundColor;
-    protected final Integer textColor;
-    protected final Integer actionTextColor;
-    protected final Drawable icon;
-    protected final AnimationType animationType;
-    protected final boolean vibrateOnShow;
-    protected final long vibrationDuration;
-    protected final boolean soundOnShow;
-    protected final Integer soundResId;
-    protected final int cornerRadius;
-    protected final int[] gradientColors;
-    protected final GradientDrawable.Orientation gradientOrientation;
-    protected final int borderWidth;
-    protected final int borderColor;
+    protected final SnackStyle style;
+    protected final int priority;
+
+    private int anchorId = View.NO_ID;
+    private final Renderer renderer;
+    private final MessagePrecomputer.Result precomputedMessage;
+    private LifecycleOwner lifecycleOwner;
+    private SnackbarLifecycle.Binding lifecycleBinding;
+    private Runnable dismissListener;
+    private SnackbarHolder holder;
+    private LiteSnackbarView lite;
+    private SnackbarTimer.Timeout timeout;
+    private long timeoutTotal;
+    private boolean timedOut;
+    private boolean carriedOver;
+    private long carriedRemaining;
+    private long showStartNanos;
+    private long firstFrameNanos;
+    private int exitEvent = NO_EXIT;
+    private int pendingFeedback;
+    private Choreographer.FrameCallback feedbackFrame;
+    private volatile Context feedbackContext;
+    private final Runnable exitEndAction = this::finishExit;
 
     protected BaseSnackbar(Builder builder) {
+        long buildStart = startTiming();
         this.view = builder.view;
         this.message = builder.message;
         this.actionText = builder.actionText;
         this.duration = builder.duration;
-        this.layoutDirection = builder.layoutDirection;
-        this.userDefinedDirection = builder.userDefinedDirection;
-        this.backgroundColor = builder.backgroundColor;
-        this.textColor = builder.textColor;
-        this.actionTextColor = builder.actionTextColor;
-        this.icon = builder.icon;
-        this.animationType = builder.animationType;
-        this.vibrateOnShow = builder.vibrateOnShow;
-        this.vibrationDuration = builder.vibrationDuration;
-        this.soundOnShow = builder.soundOnShow;
-        this.soundResId = builder.soundResId;
-        this.cornerRadius = builder.cornerRadius;
-        this.gradientColors = builder.gradientColors;
-        this.gradientOrientation = builder.gradientOrientation;
-        this.borderWidth = builder.borderWidth;
-        this.borderColor = builder.borderColor;
+        this.style = builder.resolveStyle();
+        this.priority = builder.priority;
+        this.renderer = builder.renderer;
+        this.lifecycleOwner = builder.lifecycleOwner;
+        // Shaping starts now so it has the time until show, or until dequeued, to finish.
+        // Everything else that needs the view waits for show() or enqueue().
+        this.precomputedMessage = view != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+                ? MessagePrecomputer.getInstance().submit(message, usesLiteRenderer(),
+                        style.resolveLayoutDirection(view.getContext()) == View.LAYOUT_DIRECTION_RTL)
+                : null;
+        endTiming(SnackbarMetrics.Phase.BUILD, buildStart);
     }
 
     protected abstract void show();
 
+    /**
+     * Shows the snackbar with the renderer it was built for. Subclasses call this from
+     * {@link #show()} once their own state is ready; the action calls {@link #onAction()}.
+     */
+    protected void showSnackbar() {
+        if (!carriedOver && SnackbarThrottle.getInstance().collapse(this)) {
+            finishWithoutShowing();
+            return;
+        }
+        if (usesLiteRenderer()) {
+            showLite();
+            return;
+        }
+        Snackbar snackbar = makeSnackbar();
+        if (hasAction())
+            holder.bindAction(actionText);
+        onSurfaceReady();
+        applyVisuals(snackbar);
+    }
+
+    /**
+     * Ends a show that was folded into a snackbar already on screen. It never shows on its own,
+     * but a scheduler lane waiting on it still needs to move on.
+     */
+    void finishWithoutShowing() {
+        onDismissed(BaseTransientBottomBar.BaseCallback.DISMISS_EVENT_CONSECUTIVE);
+    }
+
+    /**
+     * Returns true if the snackbar shows an action.
+     */
+    protected boolean hasAction() {
+        return false;
+    }
+
+    /**
+     * Called when the action is clicked, right before the snackbar is dismissed.
+     */
+    protected void onAction() {
+    }
+
+    /**
+     * Returns true if a repeat of this snackbar may be folded into it while it shows, see
+     * {@link SnackbarThrottle}, or replace it while queued, see {@link SnackbarQueue}.
+     * Snackbars whose callbacks must run for every request say no.
+     */
+    boolean canCollapse() {
+        return true;
+    }
+
+    /**
+     * Called when the snackbar is queued with the {@link SnackbarScheduler}.
+     */
+    void onEnqueued() {
+    }
+
+    /**
+     * Called when the snackbar is let go without being shown: replaced, trimmed, stale or
+     * cancelled while queued, or released for good along with its screen.
+     */
+    void onDropped() {
+        unbindLifecycle();
+    }
+
+    /**
+     * Called once the views for a show exist, before they are styled and first laid out.
+     */
+    void onSurfaceReady() {
+    }
+
+    boolean usesLiteRenderer() {
+        Renderer resolved = renderer != null ? renderer : BetterSnacks.renderer;
+        if (resolved == Renderer.AUTO)
+            return BetterSnacks.isLowRamDevice(view.getContext());
+        return resolved == Renderer.LITE;
+    }
+
+    void setDismissListener(Runnable dismissListener) {
+        this.dismissListener = dismissListener;
+    }
+
+    /**
+     * Returns a Material snackbar for this message, reusing an idle one from the
+     * {@link SnackbarPool} when the anchor's container has one.
+     */
+    protected Snackbar makeSnackbar() {
+        bindLifecycle();
+        if (!carriedOver)
+            beginShow();
+        View anchor = SnackbarHost.anchorFor(view);
+        holder = SnackbarPool.acquire(anchor, message);
+        holder.owner = this;
+        SnackbarHost.onShown(this, anchor);
+        return holder.snackbar;
+    }
+
+    /**
+     * Takes the snackbar off the host container before it moves to another screen. Its state
+     * is kept so {@link #showCarriedOver(View, LifecycleOwner)} can pick up where it left off.
+     */
+    void detachForTransfer() {
+        if (lite != null && lite.owner == this) {
+            // Our own view moves along with the container, only the old screen is let go.
+            unbindLifecycle();
+            runDismissListener();
+            return;
+        }
+        SnackbarHolder current = holder;
+        if (current == null || current.owner != this)
+            return;
+        carriedRemaining = timeout != null ? SnackbarTimer.getInstance().getRemaining(timeout) : 0;
+        if (timeout != null)
+            SnackbarTimer.getInstance().cancel(timeout);
+        // Material dismisses the detached view on its own; that must not count as our dismissal.
+        current.owner = null;
+        holder = null;
+        unbindLifecycle();
+        runDismissListener();
+        carriedOver = true;
+    }
+
+    boolean isCarriedOver() {
+        return carriedOver;
+    }
+
+    /**
+     * Shows a snackbar taken off by {@link #detachForTransfer()} in the host's new place, with
+     * the time it had left and without replaying its entrance, sound or vibration.
+     */
+    void showCarriedOver(View container, LifecycleOwner owner) {
+        view = container;
+        lifecycleOwner = owner;
+        if (lite != null && lite.owner == this) {
+            bindLifecycle();
+            SnackbarHost.onShown(this, container);
+            return;
+        }
+        show();
+    }
+
+    /**
+     * Returns true while the snackbar made for this instance is on screen.
+     */
+    protected boolean isShown() {
+        if (lite != null && lite.owner == this)
+            return lite.getParent() != null;
+        return holder != null && holder.owner == this && holder.snackbar.isShown();
+    }
+
+    /**
+     * Starts following the lifecycle of the screen the snackbar belongs to, if it has one.
+     * @throws IllegalStateException If that lifecycle was already destroyed and released this snackbar.
+     */
+    void bindLifecycle() {
+        if (view == null)
+            throw new IllegalStateException("Snackbar was released when its lifecycle was destroyed");
+        if (anchorId == View.NO_ID)
+            anchorId = view.getId();
+        if (lifecycleOwner == null)
+            lifecycleOwner = SnackbarLifecycle.findOwner(view.getContext());
+        if (lifecycleOwner != null && lifecycleBinding == null)
+            lifecycleBinding = SnackbarLifecycle.bind(this, lifecycleOwner, view.getContext());
+    }
+
+    private void unbindLifecycle() {
+        if (lifecycleBinding != null) {
+            lifecycleBinding.unbind();
+            lifecycleBinding = null;
+        }
+    }
+
+    LifecycleOwner getLifecycleOwner() {
+        return lifecycleOwner;
+    }
+
+    /**
+     * Cancels everything this snackbar has pending or on screen and drops its view and lifecycle
+     * owner. Called when that lifecycle is destroyed.
+     */
+    void release() {
+        lifecycleBinding = null;
+        SnackbarHolder current = holder;
+        if (lite != null && lite.owner == this) {
+            lite.remove(BaseTransientBottomBar.BaseCallback.DISMISS_EVENT_MANUAL);
+        } else if (current != null && current.owner == this) {
+            current.snackbarView.animate().cancel();
+            onDismissed(BaseTransientBottomBar.BaseCallback.DISMISS_EVENT_MANUAL);
+            current.owner = null;
+            current.snackbar.dismiss();
+        } else if (timeout != null) {
+            SnackbarTimer.getInstance().cancel(timeout);
+        }
+        dismissListener = null;
+        view = null;
+        lifecycleOwner = null;
+    }
+
+    /**
+     * Points a released snackbar at the same anchor in a recreated Activity.
+     */
+    void reattach(Activity activity) {
+        View anchor = anchorId != View.NO_ID ? activity.findViewById(anchorId) : null;
+        view = anchor != null ? anchor : activity.findViewById(android.R.id.content);
+        lifecycleOwner = activity instanceof LifecycleOwner ? (LifecycleOwner) activity : null;
+    }
+
+    /**
+     * Returns true from the moment a snackbar was made for this instance until it is dismissed.
+     */
+    boolean isActive() {
+        return (holder != null && holder.owner == this) || (lite != null && lite.owner == this);
+    }
+
+    /**
+     * Replaces the text of the snackbar currently showing for this instance.
+     */
+    void updateMessage(CharSequence text) {
+        if (lite != null && lite.owner == this)
+            lite.setMessage(text);
+        else if (isActive())
+            holder.snackbar.setText(text);
+    }
+
+    /**
+     * Starts the duration over if it is already counting down.
+     */
+    void restartTimeout() {
+        if (timeout != null && SnackbarTimer.getInstance().isRunning(timeout)) {
+            timeoutTotal = recommendedTimeout(duration);
+            SnackbarTimer.getInstance().start(timeout, timeoutTotal);
+        }
+    }
+
+    /**
+     * Called when the snackbar's duration runs out, right before it is dismissed.
+     */
+    protected void onTimeout() {
+    }
+
+    /**
+     * Dismisses the snackbar, running the exit animation first. An entrance that is still
+     * running is interrupted and reversed from its current position.
+     */
+    public void dismiss() {
+        dismiss(BaseTransientBottomBar.BaseCallback.DISMISS_EVENT_MANUAL);
+    }
+
+    /**
+     * Runs the exit animation and then takes the snackbar off screen, reporting {@code event}
+     * as the dismissal. This is the only exit: the action button comes through here as well.
+     */
+    void dismiss(int event) {
+        View surface = isActive() ? getSurfaceView() : null;
+        if (surface == null)
+            return;
+        exitEvent = event;
+        SnackbarAnimator.animateOut(surface, style.animationType, exitEndAction);
+    }
+
+    /**
+     * Takes the snackbar off screen once its exit animation ends. A cancelled exit never gets
+     * here, and a new show resets the views, so this always finishes the exit it was started by.
+     */
+    private void finishExit() {
+        if (lite != null && lite.owner == this) {
+            lite.remove(exitEvent);
+        } else if (holder != null && holder.owner == this) {
+            // Material skips its own exit for a view that is not visible and dispatches the
+            // dismissal right away, so it never animates on top of ours. With no animation of
+            // our own, Material's exit is the one that runs.
+            if (style.animationType != AnimationType.NONE)
+                holder.snackbarView.setVisibility(View.INVISIBLE);
+            holder.snackbar.dismiss();
+        }
+    }
+
+    /**
+     * Returns the event the running exit was started with, or {@code reported} if none is
+     * running. Material reports every {@link Snackbar#dismiss()} as manual.
+     */
+    int resolveDismissEvent(int reported) {
+        return exitEvent != NO_EXIT ? exitEvent : reported;
+    }
+
+    /**
+     * Runs the action and dismisses the snackbar through its exit animation.
+     */
+    void onActionClicked() {
+        onAction();
+        dismiss(BaseTransientBottomBar.BaseCallback.DISMISS_EVENT_ACTION);
+    }
+
+    void onFirstFrame() {
+        boolean carried = carriedOver;
+        carriedOver = false;
+        if (!carried) {
+            endTiming(SnackbarMetrics.Phase.SHOW_TO_FIRST_FRAME, showStartNanos);
+            showStartNanos = 0;
+            firstFrameNanos = startTiming();
+            if (Trace.isEnabled()) {
+                Trace.endAsyncSection("BetterSnacks#showToFirstFrame", System.identityHashCode(this));
+                Trace.beginAsyncSection("BetterSnacks#visible", System.identityHashCode(this));
+            }
+        }
+
+        if (!carried && style.animationType != AnimationType.NONE)
+            applyAnimationIn(getSurfaceView(), style.animationType);
+        if (!carried)
+            scheduleFeedback();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            if (holder != null)
+                MessagePrecomputer.getInstance().learn(holder.textView);
+            else if (lite != null)
+                MessagePrecomputer.getInstance().learnLite(lite);
+        }
+        if (duration > 0) {
+            if (timeout == null)
+                timeout = new SnackbarTimer.Timeout(this::onTimeoutExpired);
+            timeoutTotal = recommendedTimeout(duration);
+            SnackbarTimer.getInstance().start(timeout,
+                    carried && carriedRemaining > 0 ? carriedRemaining : timeoutTotal);
+        }
+    }
+
+    SnackbarHolder getHolder() {
+        return holder;
+    }
+
+    LiteSnackbarView getLiteView() {
+        return lite;
+    }
+
+    /**
+     * Returns the outermost view of the snackbar currently showing, whichever renderer drew it.
+     */
+    View getSurfaceView() {
+        return lite != null ? lite : holder != null ? holder.snackbarView : null;
+    }
+
+    /**
+     * Returns the share of the duration that is left, from 1 when the countdown starts to 0.
+     */
+    float getTimeoutProgress() {
+        if (timeout == null || timeoutTotal <= 0)
+            return 1f;
+        return (float) SnackbarTimer.getInstance().getRemaining(timeout) / timeoutTotal;
+    }
+
+    void pauseTimeout() {
+        if (timeout != null)
+            SnackbarTimer.getInstance().pause(timeout);
+    }
+
+    void resumeTimeout() {
+        if (timeout != null)
+            SnackbarTimer.getInstance().resume(timeout);
+    }
+
+    private void onTimeoutExpired() {
+        if (!isShown())
+            return;
+        timedOut = true;
+        onTimeout();
+        dismiss();
+    }
+
+    private long recommendedTimeout(int durationMillis) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            AccessibilityManager accessibilityManager =
+                    (AccessibilityManager) view.getContext().getSystemService(Context.ACCESSIBILITY_SERVICE);
+            if (accessibilityManager != null)
+                return accessibilityManager.getRecommendedTimeoutMillis(durationMillis,
+                        AccessibilityManager.FLAG_CONTENT_TEXT | AccessibilityManager.FLAG_CONTENT_CONTROLS);
+        }
+        return durationMillis;
+    }
+
+    void onDismissed(int event) {
+        exitEvent = NO_EXIT;
+        holder = null;
+        lite = null;
+        carriedOver = false;
+        unbindLifecycle();
+        SnackbarHost.onDismissed(this);
+        SnackbarThrottle.getInstance().onDismissed(this);
+        cancelPendingFeedback();
+        if (timeout != null)
+            SnackbarTimer.getInstance().cancel(timeout);
+        endTiming(event == BaseTransientBottomBar.BaseCallback.DISMISS_EVENT_ACTION ? SnackbarMetrics.Phase.ACTION
+                : timedOut ? SnackbarMetrics.Phase.TIMEOUT
+                : SnackbarMetrics.Phase.DISMISS, firstFrameNanos);
+        if (firstFrameNanos != 0 && Trace.isEnabled())
+            Trace.endAsyncSection("BetterSnacks#visible", System.identityHashCode(this));
+        firstFrameNanos = 0;
+        timedOut = false;
+        runDismissListener();
+    }
+
+    private void runDismissListener() {
+        if (dismissListener != null) {
+            Runnable listener = dismissListener;
+            dismissListener = null;
+            listener.run();
+        }
+    }
+
     protected void applyVisuals(Snackbar snackbar) {
-        if (duration > 0)
-            snackbar.setDuration(duration);
+        Trace.beginSection("BetterSnacks#applyVisuals");
+        try {
+            applyVisualsInternal(snackbar);
+        } finally {
+            Trace.endSection();
+        }
+    }
 
-        View snackbarView = snackbar.getView();
+    private void applyVisualsInternal(Snackbar snackbar) {
+        if (showStartNanos == 0 && !carriedOver)
+            beginShow();
+        long start = startTiming();
 
-        int resolvedDirection = userDefinedDirection
-                ? layoutDirection
-                : TextUtils.getLayoutDirectionFromLocale(Locale.getDefault());
+        if (holder == null || holder.snackbar != snackbar) {
+            holder = new SnackbarHolder(snackbar, SnackbarPool.findSuitableParent(view));
+            holder.owner = this;
+        }
+
+        View snackbarView = holder.snackbarView;
+
+        int resolvedDirection = style.resolveLayoutDirection(view.getContext());
 
         snackbarView.setLayoutDirection(resolvedDirection);
 
-        TextView textView = snackbarView.findViewById(com.google.android.material.R.id.snackbar_text);
-        TextView actionView = snackbarView.findViewById(com.google.android.material.R.id.snackbar_action);
+        TextView textView = holder.textView;
+        TextView actionView = holder.actionView;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P)
+            MessagePrecomputer.getInstance().apply(precomputedMessage, textView,
+                    resolvedDirection == View.LAYOUT_DIRECTION_RTL);
 
         textView.setGravity(Gravity.VERTICAL_GRAVITY_MASK);
 
-        if (textColor != null) {
-            textView.setTextColor(textColor);
+        if (style.hasTextColor) {
+            textView.setTextColor(style.textColor);
         }
 
-        if (actionTextColor != null) {
-            actionView.setTextColor(actionTextColor);
+        if (style.hasActionTextColor) {
+            actionView.setTextColor(style.actionTextColor);
         }
 
-        ViewGroup contentLayout = (ViewGroup) textView.getParent();
-        GradientDrawable background = getBackground();
-        contentLayout.setBackground(background);
+        holder.applyBackground(style.backgroundState(view.getContext()));
         snackbarView.setBackground(null);
 
-        if (icon != null) {
-            int iconSize = (int) (textView.getLineHeight() * 0.9f);
+        if (style.icon != null) {
+            int iconSize = style.iconSize(textView.getLineHeight());
+            Drawable icon = style.iconDrawable(view.getContext(), iconSize);
 
-            icon.setBounds(0, 0, iconSize, iconSize);
             textView.setCompoundDrawablePadding((int) (iconSize * 0.6));
 
             if (resolvedDirection == View.LAYOUT_DIRECTION_RTL)
@@ -116,90 +547,175 @@ public abstract class BaseSnackbar {
                 textView.setCompoundDrawables(icon, null, null, null);
         }
 
-        if (vibrateOnShow)
-            triggerVibration(view.getContext());
-        if (soundOnShow)
-            triggerSound(view.getContext());
+        holder.awaitFirstFrame();
 
-        if(animationType != AnimationType.NONE) {
-            snackbarView.setVisibility(GONE);
-            snackbar.show();
-            snackbarView.postDelayed(() -> {
-                snackbarView.setVisibility(VISIBLE);
-                applyAnimationIn(snackbarView, animationType);
-            }, 100);
+        if (style.animationType != AnimationType.NONE)
+            snackbar.setAnimationMode(SnackbarAnimator.materialAnimationMode(style.animationType));
+        endTiming(SnackbarMetrics.Phase.APPLY_VISUALS, start);
+        snackbar.show();
+    }
+
+    private void showLite() {
+        Trace.beginSection("BetterSnacks#applyVisuals");
+        try {
+            showLiteInternal();
+        } finally {
+            Trace.endSection();
         }
-        else
-            snackbar.show();
     }
 
-    private GradientDrawable getBackground() {
-        GradientDrawable background = new GradientDrawable();
-        background.setCornerRadius(cornerRadius);
-        if (gradientColors != null && gradientColors.length >= 2) {
-            background.setOrientation(gradientOrientation != null
-                    ? gradientOrientation
-                    : GradientDrawable.Orientation.LEFT_RIGHT);
-            background.setColors(gradientColors);
-        } else {
-            background.setColor(backgroundColor != null ? backgroundColor : Color.DKGRAY);
+    private void showLiteInternal() {
+        bindLifecycle();
+        if (!carriedOver)
+            beginShow();
+        long start = startTiming();
+
+        View anchor = SnackbarHost.anchorFor(view);
+        ViewGroup parent = SnackbarPool.findSuitableParent(anchor);
+        if (parent == null)
+            throw new IllegalArgumentException("No suitable parent found from the given view. Please provide a valid view.");
+
+        Context context = view.getContext();
+        LiteSnackbarView liteView = new LiteSnackbarView(parent.getContext());
+        liteView.owner = this;
+        lite = liteView;
+
+        liteView.setLayoutDirection(style.resolveLayoutDirection(context));
+        liteView.setMessage(Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+                ? MessagePrecomputer.getInstance().textFor(precomputedMessage, message)
+                : message);
+        liteView.setAction(hasAction() ? actionText : null);
+        if (style.hasTextColor)
+            liteView.setTextColor(style.textColor);
+        if (style.hasActionTextColor)
+            liteView.setActionTextColor(style.actionTextColor);
+        liteView.setSnackBackground(style.newBackground(context));
+        if (style.icon != null) {
+            int iconSize = style.iconSize(liteView.getLineHeight());
+            Drawable icon = style.iconDrawable(context, iconSize);
+            liteView.setIcon(icon, (int) (iconSize * 0.6));
         }
-        if (borderWidth > 0 && borderColor != -1) {
-            background.setStroke(borderWidth, borderColor);
+
+        SnackbarHost.onShown(this, anchor);
+        onSurfaceReady();
+
+        endTiming(SnackbarMetrics.Phase.APPLY_VISUALS, start);
+        liteView.show(parent);
+    }
+
+    /**
+     * Takes the sound and vibration tokens and hands the feedback to the feedback thread, right
+     * away on the frame the snackbar first draws or on the first frame after the configured
+     * offset into the entrance.
+     */
+    private void scheduleFeedback() {
+        int kinds = 0;
+        if (style.vibrateOnShow && SnackbarThrottle.getInstance().tryVibrate())
+            kinds |= FeedbackDispatcher.VIBRATE;
+        if (style.soundOnShow && SnackbarThrottle.getInstance().tryPlaySound())
+            kinds |= FeedbackDispatcher.SOUND;
+        if (kinds == 0)
+            return;
+        // Both engines only need the application; holding the Activity here would outlive release().
+        feedbackContext = view.getContext().getApplicationContext();
+        long offset = BetterSnacks.feedbackOffset;
+        if (offset <= 0) {
+            FeedbackDispatcher.getInstance().dispatch(this, kinds);
+            return;
         }
-        return background;
+        pendingFeedback = kinds;
+        if (feedbackFrame == null)
+            feedbackFrame = frameTimeNanos -> dispatchPendingFeedback();
+        Choreographer.getInstance().postFrameCallbackDelayed(feedbackFrame, offset);
     }
 
-    protected void triggerVibration(Context context) {
-        Vibrator vibrator = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
-        if (vibrator != null && vibrator.hasVibrator()) {
-            vibrator.vibrate(VibrationEffect.createOneShot(vibrationDuration > 0 ? vibrationDuration : 0, VibrationEffect.DEFAULT_AMPLITUDE));
+    private void dispatchPendingFeedback() {
+        int kinds = pendingFeedback;
+        pendingFeedback = 0;
+        if (kinds != 0)
+            FeedbackDispatcher.getInstance().dispatch(this, kinds);
+    }
+
+    private void cancelPendingFeedback() {
+        if (pendingFeedback != 0) {
+            Choreographer.getInstance().removeFrameCallback(feedbackFrame);
+            pendingFeedback = 0;
         }
     }
 
-    protected void triggerSound(Context context) {
-        MediaPlayer player = MediaPlayer.create(context, soundResId != null ? soundResId : R.raw.default_sound);
-        if (player != null) {
-            player.setOnCompletionListener(MediaPlayer::release);
-            player.setOnErrorListener((mp, what, extra) -> {
-                mp.release();
-                return true;
-            });
-            player.start();
+    /**
+     * Runs on the feedback thread.
+     */
+    void runFeedback(int kinds) {
+        Context context = feedbackContext;
+        if ((kinds & FeedbackDispatcher.VIBRATE) != 0)
+            dispatchVibration(context);
+        if ((kinds & FeedbackDispatcher.SOUND) != 0)
+            dispatchSound(context);
+    }
+
+    private void dispatchVibration(Context context) {
+        long start = startTiming();
+        Trace.beginSection("BetterSnacks#vibrate");
+        try {
+            triggerVibration(context);
+        } finally {
+            Trace.endSection();
         }
+        endTiming(SnackbarMetrics.Phase.VIBRATION_DISPATCH, start);
     }
 
-    protected void applyAnimationIn(View view, AnimationType type) {
-        switch (type) {
-            case SLIDE_IN_BOTTOM:
-                view.setTranslationY(view.getHeight());
-                view.animate()
-                        .translationY(0)
-                        .setInterpolator(new DecelerateInterpolator())
-                        .setDuration(400)
-                        .start();
-                break;
-            case FADE_IN:
-                view.setAlpha(0f);
-                view.animate()
-                        .alpha(1f)
-                        .setDuration(400)
-                        .start();
-                break;
-            case SCALE:
-                view.setScaleX(0.4f);
-                view.setScaleY(0.4f);
-                view.animate()
-                        .scaleX(1f)
-                        .scaleY(1f)
-                        .setDuration(400)
-                        .setInterpolator(new DecelerateInterpolator())
-                        .start();
-                break;
-            case NONE:
-            default:
-                break;
+    private void dispatchSound(Context context) {
+        long start = startTiming();
+        Trace.beginSection("BetterSnacks#sound");
+        try {
+            triggerSound(context);
+        } finally {
+            Trace.endSection();
         }
+        endTiming(SnackbarMetrics.Phase.SOUND_DISPATCH, start);
+    }
+
+    private void beginShow() {
+        showStartNanos = startTiming();
+        if (Trace.isEnabled())
+            Trace.beginAsyncSection("BetterSnacks#showToFirstFrame", System.identityHashCode(this));
+    }
+
+    /**
+     * Returns the current time if a metrics listener is installed, otherwise 0 so nothing is measured.
+     */
+    private static long startTiming() {
+        return BetterSnacks.metrics != SnackbarMetrics.NONE ? System.nanoTime() : 0;
+    }
+
+    private void endTiming(SnackbarMetrics.Phase phase, long start) {
+        if (start != 0)
+            BetterSnacks.metrics.onTiming(getClass(), phase, System.nanoTime() - start);
+    }
+
+    /**
+     * Vibrates for the snackbar. Called on the feedback thread, not the main thread.
+     * @param context Application context.
+     */
+    protected void triggerVibration(Context context) {
+        HapticEngine engine = HapticEngine.getInstance(context);
+        if (engine.hasVibrator())
+            engine.vibrate(style.vibrationEffect(engine));
+    }
+
+    /**
+     * Plays the snackbar sound. Called on the feedback thread, not the main thread.
+     * @param context Application context.
+     */
+    protected void triggerSound(Context context) {
+        SoundEngine.getInstance(context).play(style.soundResId);
+    }
+
+    protected void applyAnimationIn(View view, AnimationType type) {
+        long start = startTiming();
+        SnackbarAnimator.animateIn(view, type,
+                start != 0 ? () -> endTiming(SnackbarMetrics.Phase.ANIMATION, start) : null);
     }
 
     public abstract static class Builder<T extends Builder<T>> {
@@ -207,22 +723,11 @@ public abstract class BaseSnackbar {
         private String message = "message";
         private String actionText = "action";
         private int duration;
-        private int layoutDirection = View.LAYOUT_DIRECTION_LOCALE;
-        private boolean userDefinedDirection = false;
-        private Integer backgroundColor;
-        private Integer textColor;
-        private Integer actionTextColor;
-        private Drawable icon;
-        private AnimationType animationType = AnimationType.NONE;
-        private boolean vibrateOnShow = false;
-        private long vibrationDuration = 150;
-        private boolean soundOnShow = false;
-        private Integer soundResId;
-        private int cornerRadius;
-        private int[] gradientColors;
-        private GradientDrawable.Orientation gradientOrientation;
-        private int borderWidth;
-        private int borderColor = -1;
+        private SnackStyle style;
+        private SnackStyle.Builder overrides;
+        private int priority = SnackbarScheduler.PRIORITY_NORMAL;
+        private LifecycleOwner lifecycleOwner;
+        private Renderer renderer;
 
         public Builder(View view) {
             this.view = view;
@@ -232,6 +737,26 @@ public abstract class BaseSnackbar {
             this.view = activity.findViewById(android.R.id.content);
         }
 
+        /**
+         * Binds the snackbar to a lifecycle other than the one of the Activity it is shown in,
+         * such as a Fragment's view lifecycle. When it is destroyed the snackbar is cancelled,
+         * whether queued or showing, and releases its views.
+         * @param owner Lifecycle to follow.
+         */
+        public T lifecycleOwner(LifecycleOwner owner) {
+            this.lifecycleOwner = owner;
+            return self();
+        }
+
+        /**
+         * Chooses how this snackbar is drawn, overriding {@link BetterSnacks#setRenderer(Renderer)}.
+         * @param renderer Renderer to use.
+         */
+        public T renderer(Renderer renderer) {
+            this.renderer = renderer;
+            return self();
+        }
+
         /**
          * Sets the main message text.
          * @param message Message string.
@@ -264,8 +789,7 @@ public abstract class BaseSnackbar {
          * @param direction View.LAYOUT_DIRECTION_LTR or RTL.
          */
         public T layoutDirection(int direction) {
-            this.layoutDirection = direction;
-            this.userDefinedDirection = true;
+            overrides().layoutDirection(direction);
             return self();
         }
 
@@ -274,7 +798,7 @@ public abstract class BaseSnackbar {
          * @param color Background color integer.
          */
         public T backgroundColor(int color) {
-            this.backgroundColor = color;
+            overrides().backgroundColor(color);
             return self();
         }
 
@@ -283,7 +807,7 @@ public abstract class BaseSnackbar {
          * @param color Color integer.
          */
         public T textColor(int color) {
-            this.textColor = color;
+            overrides().textColor(color);
             return self();
         }
 
@@ -292,7 +816,7 @@ public abstract class BaseSnackbar {
          * @param color Color integer.
          */
         public T actionTextColor(int color) {
-            this.actionTextColor = color;
+            overrides().actionTextColor(color);
             return self();
         }
 
@@ -301,7 +825,16 @@ public abstract class BaseSnackbar {
          * @param icon Drawable to use.
          */
         public T icon(Drawable icon) {
-            this.icon = icon;
+            overrides().icon(icon);
+            return self();
+        }
+
+        /**
+         * Tints the icon. The drawable passed to {@link #icon(Drawable)} is not modified.
+         * @param color Tint color.
+         */
+        public T iconTint(int color) {
+            overrides().iconTint(color);
             return self();
         }
 
@@ -310,7 +843,7 @@ public abstract class BaseSnackbar {
          * @param animationType The type of animation to apply.
          */
         public T animation(AnimationType animationType) {
-            this.animationType = animationType;
+            overrides().animation(animationType);
             return self();
         }
 
@@ -319,7 +852,7 @@ public abstract class BaseSnackbar {
          * @param vibrate True to enable.
          */
         public T vibrateOnShow(boolean vibrate) {
-            this.vibrateOnShow = vibrate;
+            overrides().vibrateOnShow(vibrate);
             return self();
         }
 
@@ -328,7 +861,34 @@ public abstract class BaseSnackbar {
          * @param millis Duration in milliseconds.
          */
         public T vibrationDuration(long millis) {
-            this.vibrationDuration = millis;
+            overrides().vibrationDuration(millis);
+            return self();
+        }
+
+        /**
+         * Sets the vibration strength.
+         * @param amplitude 1-255, or VibrationEffect.DEFAULT_AMPLITUDE.
+         */
+        public T vibrationAmplitude(int amplitude) {
+            overrides().vibrationAmplitude(amplitude);
+            return self();
+        }
+
+        /**
+         * Vibrates with a pattern instead of a single pulse.
+         * @param timings Alternating off/on durations in milliseconds, starting with a delay.
+         */
+        public T vibrationPattern(long[] timings) {
+            overrides().vibrationPattern(timings);
+            return self();
+        }
+
+        /**
+         * Uses a predefined system effect, falling back to the pulse or pattern before Android 10.
+         * @param effectId A VibrationEffect.EFFECT_* constant.
+         */
+        public T vibrationEffect(int effectId) {
+            overrides().vibrationEffect(effectId);
             return self();
         }
 
@@ -337,7 +897,9 @@ public abstract class BaseSnackbar {
          * @param sound True to enable.
          */
         public T soundOnShow(boolean sound) {
-            this.soundOnShow = sound;
+            overrides().soundOnShow(sound);
+            if (sound && !overrides.isSet(SnackStyle.Builder.SOUND))
+                preloadSound(baseStyle().soundResId);
             return self();
         }
 
@@ -346,7 +908,8 @@ public abstract class BaseSnackbar {
          * @param rawResId Resource ID of the sound.
          */
         public T sound(int rawResId) {
-            this.soundResId = rawResId;
+            overrides().sound(rawResId);
+            preloadSound(rawResId);
             return self();
         }
 
@@ -355,7 +918,7 @@ public abstract class BaseSnackbar {
          * @param radius pixel radius int.
          */
         public T cornerRadius(int radius) {
-            this.cornerRadius = radius;
+            overrides().cornerRadius(radius);
             return self();
         }
 
@@ -367,8 +930,7 @@ public abstract class BaseSnackbar {
          *                              (e.g., LEFT_RIGHT, TOP_BOTTOM).
          */
         public T gradient(int[] gradientColors, GradientDrawable.Orientation gradientOrientation) {
-            this.gradientColors = gradientColors;
-            this.gradientOrientation = gradientOrientation;
+            overrides().gradient(gradientColors, gradientOrientation);
             return self();
         }
 
@@ -378,11 +940,53 @@ public abstract class BaseSnackbar {
          * @param borderWidth The width of the border in pixels.
          */
         public T border(int borderColor, int borderWidth) {
-            this.borderColor = borderColor;
-            this.borderWidth = borderWidth;
+            overrides().border(borderColor, borderWidth);
+            return self();
+        }
+
+        /**
+         * Sets the priority used when the snackbar is queued with {@code enqueue()}.
+         * @param priority One of the {@link SnackbarScheduler} PRIORITY constants, or any int.
+         */
+        public T priority(int priority) {
+            this.priority = priority;
+            return self();
+        }
+
+        /**
+         * Applies a shared style instead of the theme's {@code betterSnackbarStyle}. Values set on
+         * this builder, before or after, still override it.
+         * @param style Style to start from.
+         */
+        public T style(SnackStyle style) {
+            this.style = style;
+            if (style.soundOnShow)
+                preloadSound(style.soundResId);
             return self();
         }
 
+        SnackStyle resolveStyle() {
+            SnackStyle base = baseStyle();
+            return overrides != null ? overrides.buildOn(base) : base;
+        }
+
+        private SnackStyle baseStyle() {
+            if (style != null)
+                return style;
+            return view != null ? ThemeSnackStyles.resolve(view.getContext()) : SnackStyle.DEFAULT;
+        }
+
+        private SnackStyle.Builder overrides() {
+            if (overrides == null)
+                overrides = new SnackStyle.Builder();
+            return overrides;
+        }
+
+        private void preloadSound(int rawResId) {
+            if (view != null)
+                SoundEngine.getInstance(view.getContext()).register(rawResId);
+        }
+
         protected abstract T self();
     }
 }
\ No newline at end of file
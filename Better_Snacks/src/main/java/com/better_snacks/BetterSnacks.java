@@ -0,0 +1,188 @@
+package com.better_snacks;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+
+import com.google.android.material.snackbar.BaseTransientBottomBar;
+import com.google.android.material.snackbar.Snackbar;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Library-wide configuration.
+ */
+public final class BetterSnacks {
+
+    private static final String TAG = "BetterSnacks";
+
+    /**
+     * Parts of the library that {@link #prewarm(Context)} prepares, in the order it prepares them.
+     */
+    public enum Component {
+        /** The default sound, decoded into the shared {@link SoundEngine}. */
+        SOUND,
+        /** The vibrator service and the default vibration effect. */
+        HAPTICS,
+        /** Material snackbar classes, loaded and initialized. */
+        CLASSES,
+        /** The layout direction of the current locale. */
+        LOCALE,
+        /** Backgrounds of the default and registered styles. */
+        STYLES
+    }
+
+    // Class literals, not names, so R8 keeps them in step when a minified app renames the classes.
+    private static final Class<?>[] WARM_CLASSES = {
+            Snackbar.class,
+            BaseTransientBottomBar.class,
+            SnackbarHolder.class,
+            SnackbarAnimator.class,
+    };
+
+    static volatile SnackbarMetrics metrics = SnackbarMetrics.NONE;
+    static volatile BaseSnackbar.Renderer renderer = BaseSnackbar.Renderer.MATERIAL;
+    static volatile long feedbackOffset;
+    private static volatile Boolean lowRamDevice;
+
+    private static final Set<Component> warm = Collections.synchronizedSet(EnumSet.noneOf(Component.class));
+    private static volatile Context appContext;
+
+    private BetterSnacks() {
+    }
+
+    /**
+     * Installs a listener for snackbar timings, or {@link SnackbarMetrics#NONE} to turn them off.
+     * @param metrics Listener to install.
+     */
+    public static void setMetrics(SnackbarMetrics metrics) {
+        BetterSnacks.metrics = metrics != null ? metrics : SnackbarMetrics.NONE;
+    }
+
+    /**
+     * Returns the installed timings listener.
+     */
+    public static SnackbarMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets how snackbars without their own {@code renderer(...)} are drawn.
+     * @param renderer Renderer to use, {@link BaseSnackbar.Renderer#MATERIAL} by default.
+     */
+    public static void setRenderer(BaseSnackbar.Renderer renderer) {
+        BetterSnacks.renderer = renderer != null ? renderer : BaseSnackbar.Renderer.MATERIAL;
+    }
+
+    /**
+     * Returns the renderer used by snackbars without their own.
+     */
+    public static BaseSnackbar.Renderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Sets when show feedback starts. Sound and vibration fire on the frame a snackbar first
+     * draws, or on the first frame at least this long into its entrance animation.
+     * @param millis Offset in milliseconds, 0 by default.
+     */
+    public static void setFeedbackOffset(long millis) {
+        feedbackOffset = Math.max(0, millis);
+    }
+
+    /**
+     * Returns the offset set with {@link #setFeedbackOffset(long)}.
+     */
+    public static long getFeedbackOffset() {
+        return feedbackOffset;
+    }
+
+    static boolean isLowRamDevice(Context context) {
+        Boolean lowRam = lowRamDevice;
+        if (lowRam == null) {
+            ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            lowRam = activityManager != null && activityManager.isLowRamDevice();
+            lowRamDevice = lowRam;
+        }
+        return lowRam;
+    }
+
+    /**
+     * Does the work that otherwise lands on the first snackbar, on a background thread, so the
+     * first show after a cold start costs the same as any later one. Meant to be called from
+     * {@code Application.onCreate} or a startup initializer; calls after the first do nothing.
+     * The sound is started first since it takes longest to decode.
+     * @param context Any context, only its application context is retained.
+     */
+    public static void prewarm(Context context) {
+        synchronized (BetterSnacks.class) {
+            if (appContext != null)
+                return;
+            appContext = context.getApplicationContext();
+        }
+        Context app = appContext;
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            for (Component component : Component.values()) {
+                try {
+                    warmUp(app, component);
+                    warm.add(component);
+                } catch (RuntimeException | ClassNotFoundException e) {
+                    Log.w(TAG, "Could not prewarm " + component, e);
+                }
+            }
+        }, "BetterSnacks-prewarm");
+        thread.start();
+    }
+
+    /**
+     * Returns the components that are ready. The sound counts once it has finished decoding.
+     */
+    public static Set<Component> getWarmComponents() {
+        EnumSet<Component> result;
+        synchronized (warm) {
+            result = warm.isEmpty() ? EnumSet.noneOf(Component.class) : EnumSet.copyOf(warm);
+        }
+        Context app = appContext;
+        if (result.contains(Component.SOUND)
+                && !SoundEngine.getInstance(app).isLoaded(SnackStyle.DEFAULT.soundResId))
+            result.remove(Component.SOUND);
+        return result;
+    }
+
+    /**
+     * Returns true if the given component is ready.
+     */
+    public static boolean isWarm(Component component) {
+        return getWarmComponents().contains(component);
+    }
+
+    private static void warmUp(Context context, Component component) throws ClassNotFoundException {
+        switch (component) {
+            case SOUND:
+                SoundEngine.getInstance(context).register(SnackStyle.DEFAULT.soundResId);
+                break;
+            case HAPTICS:
+                HapticEngine engine = HapticEngine.getInstance(context);
+                if (engine.hasVibrator())
+                    SnackStyle.DEFAULT.vibrationEffect(engine);
+                break;
+            case CLASSES:
+                ClassLoader loader = BetterSnacks.class.getClassLoader();
+                for (Class<?> type : WARM_CLASSES)
+                    Class.forName(type.getName(), true, loader);
+                break;
+            case LOCALE:
+                SnackStyle.localeLayoutDirection(context);
+                break;
+            case STYLES:
+                SnackStyle.DEFAULT.newBackground(context);
+                for (SnackStyle style : SnackStyle.registered())
+                    style.newBackground(context);
+                break;
+        }
+    }
+}
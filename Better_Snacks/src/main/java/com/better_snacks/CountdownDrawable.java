@@ -0,0 +1,77 @@
+package com.better_snacks;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+/**
+ * Time left on a snackbar, drawn as a bar that shrinks toward the start edge or a ring that
+ * empties clockwise. It lives in the snackbar's overlay, so a progress change only redraws it
+ * and never requests layout.
+ */
+final class CountdownDrawable extends Drawable {
+
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF arcBounds = new RectF();
+    private final boolean ring;
+    private float progress = 1f;
+
+    CountdownDrawable(boolean ring, int color, float strokeWidth) {
+        this.ring = ring;
+        paint.setColor(color);
+        if (ring) {
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(strokeWidth);
+            paint.setStrokeCap(Paint.Cap.ROUND);
+        }
+    }
+
+    /**
+     * @param progress Share of the time left, between 0 and 1.
+     */
+    void setProgress(float progress) {
+        progress = Math.max(0f, Math.min(1f, progress));
+        if (progress != this.progress) {
+            this.progress = progress;
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        Rect bounds = getBounds();
+        if (ring) {
+            float inset = paint.getStrokeWidth() / 2f;
+            arcBounds.set(bounds.left + inset, bounds.top + inset, bounds.right - inset, bounds.bottom - inset);
+            canvas.drawArc(arcBounds, -90f, 360f * progress, false, paint);
+        } else {
+            float width = bounds.width() * progress;
+            if (getLayoutDirection() == View.LAYOUT_DIRECTION_RTL)
+                canvas.drawRect(bounds.right - width, bounds.top, bounds.right, bounds.bottom, paint);
+            else
+                canvas.drawRect(bounds.left, bounds.top, bounds.left + width, bounds.bottom, paint);
+        }
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        paint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        paint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,51 @@
+package com.better_snacks;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.os.Process;
+
+/**
+ * Runs snackbar sound and haptics on a dedicated thread, so starting them never takes time
+ * from the frame the snackbar first appears in. {@link BaseSnackbar} decides on the main thread
+ * when feedback is due, aligned to a Choreographer frame, and hands it over here.
+ */
+final class FeedbackDispatcher implements Handler.Callback {
+
+    static final int VIBRATE = 1;
+    static final int SOUND = 1 << 1;
+
+    private static final int MSG_FEEDBACK = 1;
+
+    private static FeedbackDispatcher instance;
+
+    private final Handler handler;
+
+    private FeedbackDispatcher() {
+        HandlerThread thread = new HandlerThread("BetterSnacks-feedback", Process.THREAD_PRIORITY_AUDIO);
+        thread.start();
+        handler = new Handler(thread.getLooper(), this);
+    }
+
+    static FeedbackDispatcher getInstance() {
+        if (instance == null)
+            instance = new FeedbackDispatcher();
+        return instance;
+    }
+
+    /**
+     * Queues the feedback of a snackbar. Called on the main thread.
+     * @param kinds Any of {@link #VIBRATE} and {@link #SOUND}.
+     */
+    void dispatch(BaseSnackbar snackbar, int kinds) {
+        handler.obtainMessage(MSG_FEEDBACK, kinds, 0, snackbar).sendToTarget();
+    }
+
+    @Override
+    public boolean handleMessage(Message msg) {
+        if (msg.what != MSG_FEEDBACK)
+            return false;
+        ((BaseSnackbar) msg.obj).runFeedback(msg.arg1);
+        return true;
+    }
+}
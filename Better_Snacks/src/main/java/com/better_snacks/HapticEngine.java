@@ -0,0 +1,120 @@
+package com.better_snacks;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.SystemClock;
+import android.os.VibrationEffect;
+import android.os.Vibrator;
+import android.util.LongSparseArray;
+import android.util.SparseArray;
+
+/**
+ * Shared haptics for snackbars. The {@link Vibrator} is resolved once, one-shot and predefined
+ * effects are built once and reused, and vibrations requested within the coalescing window of
+ * the previous one are dropped so a burst of snackbars produces a single vibration.
+ */
+public final class HapticEngine {
+
+    private static final long DEFAULT_COALESCE_WINDOW = 100;
+
+    private static volatile HapticEngine instance;
+
+    private final Vibrator vibrator;
+    private final LongSparseArray<VibrationEffect> oneShots = new LongSparseArray<>();
+    private final SparseArray<VibrationEffect> predefined = new SparseArray<>();
+    private long coalesceWindowMillis = DEFAULT_COALESCE_WINDOW;
+    private long lastVibrationAt = -1;
+
+    private HapticEngine(Vibrator vibrator) {
+        this.vibrator = vibrator;
+    }
+
+    /**
+     * Returns the process-wide engine, resolving the vibrator on first use.
+     * @param context Any context.
+     */
+    public static HapticEngine getInstance(Context context) {
+        if (instance == null) {
+            synchronized (HapticEngine.class) {
+                if (instance == null) {
+                    Vibrator vibrator = (Vibrator) context.getApplicationContext()
+                            .getSystemService(Context.VIBRATOR_SERVICE);
+                    instance = new HapticEngine(vibrator != null && vibrator.hasVibrator() ? vibrator : null);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns true if the device can vibrate.
+     */
+    public boolean hasVibrator() {
+        return vibrator != null;
+    }
+
+    /**
+     * Sets the window in which vibrations after the first one are dropped.
+     * @param millis Window in milliseconds, 0 to disable coalescing.
+     */
+    public synchronized void setCoalesceWindow(long millis) {
+        this.coalesceWindowMillis = Math.max(0, millis);
+    }
+
+    /**
+     * Returns a cached one-shot effect.
+     * @param durationMillis Duration in milliseconds.
+     * @param amplitude      1-255, or {@link VibrationEffect#DEFAULT_AMPLITUDE}.
+     */
+    public synchronized VibrationEffect oneShot(long durationMillis, int amplitude) {
+        long key = (durationMillis << 9) | (amplitude & 0x1FF);
+        VibrationEffect effect = oneShots.get(key);
+        if (effect == null) {
+            effect = VibrationEffect.createOneShot(Math.max(1, durationMillis), amplitude);
+            oneShots.put(key, effect);
+        }
+        return effect;
+    }
+
+    /**
+     * Returns a cached predefined effect such as {@link VibrationEffect#EFFECT_TICK}, or null
+     * before Android 10 where predefined effects do not exist.
+     * @param effectId Predefined effect ID.
+     */
+    public synchronized VibrationEffect predefined(int effectId) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q)
+            return null;
+        VibrationEffect effect = predefined.get(effectId);
+        if (effect == null) {
+            effect = VibrationEffect.createPredefined(effectId);
+            predefined.put(effectId, effect);
+        }
+        return effect;
+    }
+
+    /**
+     * Builds a non-repeating waveform effect.
+     * @param timings Alternating off/on durations in milliseconds, starting with a delay.
+     */
+    public VibrationEffect waveform(long[] timings) {
+        return VibrationEffect.createWaveform(timings, -1);
+    }
+
+    /**
+     * Plays an effect unless another vibration started within the coalescing window.
+     * @param effect Effect to play.
+     * @return True if the vibration was dispatched.
+     */
+    public boolean vibrate(VibrationEffect effect) {
+        if (vibrator == null || effect == null)
+            return false;
+        synchronized (this) {
+            long now = SystemClock.uptimeMillis();
+            if (lastVibrationAt >= 0 && now - lastVibrationAt < coalesceWindowMillis)
+                return false;
+            lastVibrationAt = now;
+        }
+        vibrator.vibrate(effect);
+        return true;
+    }
+}
@@ -0,0 +1,183 @@
+package com.better_snacks;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.LruCache;
+
+/**
+ * Memory-bounded cache of snackbar icons rasterized at the size they are shown. The caller's
+ * drawable is never mutated: it is copied through its {@link Drawable.ConstantState} before
+ * being tinted and drawn. Entries do not depend on layout direction, so LTR and RTL snackbars
+ * share them.
+ */
+public final class IconCache implements ComponentCallbacks2 {
+
+    private static final int DEFAULT_MAX_SIZE_KB =
+            (int) Math.min(4 * 1024, Runtime.getRuntime().maxMemory() / 1024 / 64);
+
+    private static volatile IconCache instance;
+
+    private final Resources resources;
+    private final Key probe = new Key();
+    private final LruCache<Key, BitmapDrawable> icons = new LruCache<Key, BitmapDrawable>(DEFAULT_MAX_SIZE_KB) {
+        @Override
+        protected int sizeOf(Key key, BitmapDrawable value) {
+            return Math.max(1, value.getBitmap().getAllocationByteCount() / 1024);
+        }
+    };
+
+    private IconCache(Resources resources) {
+        this.resources = resources;
+    }
+
+    /**
+     * Returns the process-wide cache, creating it on first use.
+     * @param context Any context, only its application context is retained.
+     */
+    public static IconCache getInstance(Context context) {
+        if (instance == null) {
+            synchronized (IconCache.class) {
+                if (instance == null) {
+                    Context appContext = context.getApplicationContext();
+                    IconCache cache = new IconCache(appContext.getResources());
+                    appContext.registerComponentCallbacks(cache);
+                    instance = cache;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Sets how much memory the rasterized icons may use before the least recently used is evicted.
+     * @param kilobytes Maximum size in KB, must be positive.
+     */
+    public void setMaxSize(int kilobytes) {
+        icons.resize(kilobytes);
+    }
+
+    /**
+     * Drops every cached icon.
+     */
+    public void clear() {
+        icons.evictAll();
+    }
+
+    /**
+     * Returns the icon rendered at the given size, with its bounds already set.
+     * Animated drawables are copied instead of rasterized so they keep animating.
+     * @param icon    Caller's drawable, left untouched.
+     * @param sizePx  Width and height in pixels.
+     * @param hasTint Whether to tint the icon.
+     * @param tint    Tint color, ignored unless hasTint.
+     */
+    public Drawable obtain(Drawable icon, int sizePx, boolean hasTint, int tint) {
+        Drawable.ConstantState state = icon.getConstantState();
+        if (icon instanceof Animatable && state != null) {
+            Drawable copy = state.newDrawable(resources).mutate();
+            copy.setBounds(0, 0, sizePx, sizePx);
+            if (hasTint)
+                copy.setTint(tint);
+            return copy;
+        }
+
+        Object source = state != null ? state : icon;
+        int densityDpi = resources.getDisplayMetrics().densityDpi;
+        // A hit looks the icon up with a reused key, only a miss allocates one to store.
+        synchronized (probe) {
+            BitmapDrawable cached = icons.get(probe.set(source, sizePx, densityDpi, hasTint, tint));
+            probe.source = null;
+            if (cached == null) {
+                cached = rasterize(icon, state, sizePx, hasTint, tint);
+                icons.put(new Key().set(source, sizePx, densityDpi, hasTint, tint), cached);
+            }
+            return cached;
+        }
+    }
+
+    private BitmapDrawable rasterize(Drawable icon, Drawable.ConstantState state,
+                                     int sizePx, boolean hasTint, int tint) {
+        Bitmap bitmap = Bitmap.createBitmap(Math.max(1, sizePx), Math.max(1, sizePx), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        if (state != null) {
+            Drawable copy = state.newDrawable(resources).mutate();
+            copy.setBounds(0, 0, sizePx, sizePx);
+            if (hasTint)
+                copy.setTint(tint);
+            copy.draw(canvas);
+        } else {
+            Rect bounds = icon.copyBounds();
+            icon.setBounds(0, 0, sizePx, sizePx);
+            icon.draw(canvas);
+            icon.setBounds(bounds);
+            if (hasTint)
+                canvas.drawColor(tint, PorterDuff.Mode.SRC_IN);
+        }
+        BitmapDrawable drawable = new BitmapDrawable(resources, bitmap);
+        drawable.setBounds(0, 0, sizePx, sizePx);
+        return drawable;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_UI_HIDDEN)
+            clear();
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    private static final class Key {
+        private Object source;
+        private int sizePx;
+        private int densityDpi;
+        private boolean hasTint;
+        private int tint;
+
+        Key set(Object source, int sizePx, int densityDpi, boolean hasTint, int tint) {
+            this.source = source;
+            this.sizePx = sizePx;
+            this.densityDpi = densityDpi;
+            this.hasTint = hasTint;
+            this.tint = hasTint ? tint : 0;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return source == other.source
+                    && sizePx == other.sizePx
+                    && densityDpi == other.densityDpi
+                    && hasTint == other.hasTint
+                    && tint == other.tint;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = System.identityHashCode(source);
+            h = 31 * h + sizePx;
+            h = 31 * h + densityDpi;
+            h = 31 * h + (hasTint ? 1 : 0);
+            h = 31 * h + tint;
+            return h;
+        }
+    }
+}
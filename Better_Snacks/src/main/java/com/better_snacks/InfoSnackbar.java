@@ -3,8 +3,6 @@ package com.better_snacks;
 import android.app.Activity;
 import android.view.View;
 
-import com.google.android.material.snackbar.Snackbar;
-
 public class InfoSnackbar extends BaseSnackbar {
 
     private final Runnable onConfirm;
@@ -16,11 +14,17 @@ public class InfoSnackbar extends BaseSnackbar {
 
     @Override
     public void show() {
-        Snackbar snackbar = Snackbar.make(view, message, Snackbar.LENGTH_INDEFINITE);
-        if (onConfirm != null)
-            snackbar.setAction(actionText, v -> onConfirm.run());
+        showSnackbar();
+    }
+
+    @Override
+    protected boolean hasAction() {
+        return onConfirm != null;
+    }
 
-        applyVisuals(snackbar);
+    @Override
+    protected void onAction() {
+        onConfirm.run();
     }
 
     public static class Builder extends BaseSnackbar.Builder<Builder> {
@@ -72,6 +76,13 @@ public class InfoSnackbar extends BaseSnackbar {
             build().show();
         }
 
+        /**
+         * Builds the Snackbar and queues it with the {@link SnackbarScheduler}.
+         */
+        public void enqueue() {
+            SnackbarScheduler.getInstance().enqueue(build());
+        }
+
         @Override
         protected Builder self() {
             return this;
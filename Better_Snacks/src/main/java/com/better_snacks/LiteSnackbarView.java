@@ -0,0 +1,375 @@
+package com.better_snacks;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextDirectionHeuristic;
+import android.text.TextDirectionHeuristics;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.view.WindowInsets;
+import android.widget.FrameLayout;
+
+import androidx.coordinatorlayout.widget.CoordinatorLayout;
+
+import com.google.android.material.snackbar.BaseTransientBottomBar;
+
+import java.util.Locale;
+
+/**
+ * Single-view snackbar used by {@link BaseSnackbar.Renderer#LITE}. Background, icon, message and
+ * action are drawn in one pass from cached {@link StaticLayout}s, so there are no child views
+ * to measure and nothing is drawn underneath the background.
+ */
+@SuppressLint("ViewConstructor")
+final class LiteSnackbarView extends View implements ViewTreeObserver.OnPreDrawListener {
+
+    private static final int MAX_LINES = 2;
+    private static final float TEXT_SIZE_SP = 14;
+    private static final float HORIZONTAL_PADDING_DP = 16;
+    private static final float VERTICAL_PADDING_DP = 14;
+    private static final float ACTION_GAP_DP = 16;
+    private static final float MIN_HEIGHT_DP = 48;
+    private static final float MARGIN_DP = 8;
+    private static final float MAX_WIDTH_DP = 600;
+    private static final int DEFAULT_TEXT_COLOR = 0xDEFFFFFF;
+    private static final int DEFAULT_ACTION_COLOR = 0xFFBB86FC;
+    static final int BREAK_STRATEGY = Layout.BREAK_STRATEGY_SIMPLE;
+    static final int HYPHENATION_FREQUENCY = Layout.HYPHENATION_FREQUENCY_NONE;
+
+    BaseSnackbar owner;
+
+    private final TextPaint messagePaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+    private final TextPaint actionPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+    private final int horizontalPadding;
+    private final int verticalPadding;
+    private final int actionGap;
+    private final int minHeight;
+    private final int margin;
+    private final int maxWidth;
+    private final Rect actionBounds = new Rect();
+
+    private CharSequence message = "";
+    private CharSequence action;
+    private StaticLayout messageLayout;
+    private StaticLayout actionLayout;
+    private Drawable background;
+    private Drawable icon;
+    private int iconPadding;
+    private int reservedEnd;
+    private boolean actionPressed;
+    private int actionColor;
+    private ViewGroup parent;
+    private ViewTreeObserver frameObserver;
+
+    LiteSnackbarView(Context context) {
+        super(context);
+        float density = getResources().getDisplayMetrics().density;
+        horizontalPadding = Math.round(HORIZONTAL_PADDING_DP * density);
+        verticalPadding = Math.round(VERTICAL_PADDING_DP * density);
+        actionGap = Math.round(ACTION_GAP_DP * density);
+        minHeight = Math.round(MIN_HEIGHT_DP * density);
+        margin = Math.round(MARGIN_DP * density);
+        maxWidth = Math.round(MAX_WIDTH_DP * density);
+
+        float textSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TEXT_SIZE_SP,
+                getResources().getDisplayMetrics());
+        messagePaint.setTextSize(textSize);
+        messagePaint.setColor(DEFAULT_TEXT_COLOR);
+        actionPaint.setTextSize(textSize);
+        actionPaint.setFakeBoldText(true);
+        setActionTextColor(resolveActionColor(context));
+
+        setAccessibilityLiveRegion(ACCESSIBILITY_LIVE_REGION_POLITE);
+    }
+
+    private static int resolveActionColor(Context context) {
+        TypedValue value = new TypedValue();
+        if (context.getTheme().resolveAttribute(androidx.appcompat.R.attr.colorAccent, value, true)
+                && value.type >= TypedValue.TYPE_FIRST_COLOR_INT && value.type <= TypedValue.TYPE_LAST_COLOR_INT)
+            return value.data;
+        return DEFAULT_ACTION_COLOR;
+    }
+
+    void setMessage(CharSequence message) {
+        this.message = message != null ? message : "";
+        messageLayout = null;
+        updateContentDescription();
+        requestLayout();
+        invalidate();
+    }
+
+    void setAction(CharSequence action) {
+        this.action = TextUtils.isEmpty(action) ? null : action.toString().toUpperCase(Locale.getDefault());
+        actionLayout = null;
+        updateContentDescription();
+        requestLayout();
+    }
+
+    void setTextColor(int color) {
+        messagePaint.setColor(color);
+    }
+
+    void setActionTextColor(int color) {
+        actionColor = color;
+        actionPaint.setColor(color);
+    }
+
+    int getActionColor() {
+        return actionColor;
+    }
+
+    TextPaint copyMessagePaint() {
+        return new TextPaint(messagePaint);
+    }
+
+    int getLineHeight() {
+        return messagePaint.getFontMetricsInt(null);
+    }
+
+    void setSnackBackground(Drawable background) {
+        this.background = background;
+        invalidate();
+    }
+
+    void setIcon(Drawable icon, int padding) {
+        this.icon = icon;
+        this.iconPadding = padding;
+        messageLayout = null;
+        requestLayout();
+    }
+
+    /**
+     * Keeps the given width free at the end edge, for something drawn in the overlay.
+     */
+    void reserveEnd(int width) {
+        reservedEnd = width;
+        messageLayout = null;
+        requestLayout();
+    }
+
+    /**
+     * Returns the area kept free by {@link #reserveEnd(int)}.
+     */
+    void getReservedBounds(Rect out) {
+        int top = verticalPadding / 2;
+        int bottom = getHeight() - verticalPadding / 2;
+        if (isRtl())
+            out.set(horizontalPadding / 2, top, horizontalPadding / 2 + reservedEnd, bottom);
+        else
+            out.set(getWidth() - horizontalPadding / 2 - reservedEnd, top, getWidth() - horizontalPadding / 2, bottom);
+    }
+
+    /**
+     * Adds the view at the bottom of the container, replacing a lite snackbar already shown there,
+     * and calls {@link BaseSnackbar#onFirstFrame()} on the owner right before it is first drawn.
+     */
+    void show(ViewGroup parent) {
+        Object current = parent.getTag(R.id.better_snacks_lite);
+        if (current instanceof LiteSnackbarView)
+            ((LiteSnackbarView) current).remove(BaseTransientBottomBar.BaseCallback.DISMISS_EVENT_CONSECUTIVE);
+        this.parent = parent;
+        parent.setTag(R.id.better_snacks_lite, this);
+
+        int bottomMargin = margin;
+        WindowInsets insets = parent.getRootWindowInsets();
+        if (insets != null)
+            bottomMargin += insets.getSystemWindowInsetBottom();
+        ViewGroup.MarginLayoutParams params;
+        if (parent instanceof CoordinatorLayout) {
+            CoordinatorLayout.LayoutParams lp = new CoordinatorLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+            lp.gravity = Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL;
+            params = lp;
+        } else {
+            params = new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                    ViewGroup.LayoutParams.WRAP_CONTENT, Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL);
+        }
+        params.setMargins(margin, margin, margin, bottomMargin);
+
+        frameObserver = parent.getViewTreeObserver();
+        frameObserver.addOnPreDrawListener(this);
+        parent.addView(this, params);
+    }
+
+    /**
+     * Takes the view off screen and tells the owner it was dismissed.
+     * @param event One of the {@link BaseTransientBottomBar.BaseCallback} dismiss events.
+     */
+    void remove(int event) {
+        removeFrameListener();
+        animate().cancel();
+        if (parent != null) {
+            if (parent.getTag(R.id.better_snacks_lite) == this)
+                parent.setTag(R.id.better_snacks_lite, null);
+            parent.removeView(this);
+            parent = null;
+        }
+        BaseSnackbar current = owner;
+        owner = null;
+        if (current != null)
+            current.onDismissed(event);
+    }
+
+    @Override
+    public boolean onPreDraw() {
+        if (getVisibility() == VISIBLE && isAttachedToWindow()) {
+            removeFrameListener();
+            if (owner != null)
+                owner.onFirstFrame();
+        }
+        return true;
+    }
+
+    private void removeFrameListener() {
+        if (frameObserver != null) {
+            if (frameObserver.isAlive())
+                frameObserver.removeOnPreDrawListener(this);
+            frameObserver = null;
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int available = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+                ? maxWidth : MeasureSpec.getSize(widthMeasureSpec);
+        int width = Math.min(available, maxWidth);
+
+        if (action != null && actionLayout == null)
+            actionLayout = buildLayout(action, actionPaint, (int) Math.ceil(actionPaint.measureText(action, 0, action.length())), 1);
+        int actionWidth = actionLayout != null ? actionLayout.getWidth() + actionGap : 0;
+        int iconWidth = icon != null ? icon.getBounds().width() + iconPadding : 0;
+        int textWidth = Math.max(0, width - 2 * horizontalPadding - reservedEnd - actionWidth - iconWidth);
+        if (messageLayout == null || messageLayout.getWidth() != textWidth)
+            messageLayout = buildLayout(message, messagePaint, textWidth, MAX_LINES);
+
+        int contentHeight = messageLayout.getHeight();
+        if (icon != null)
+            contentHeight = Math.max(contentHeight, icon.getBounds().height());
+        setMeasuredDimension(width, Math.max(minHeight, contentHeight + 2 * verticalPadding));
+    }
+
+    private StaticLayout buildLayout(CharSequence text, TextPaint paint, int width, int maxLines) {
+        TextDirectionHeuristic direction = isRtl()
+                ? TextDirectionHeuristics.FIRSTSTRONG_RTL : TextDirectionHeuristics.FIRSTSTRONG_LTR;
+        return StaticLayout.Builder.obtain(text, 0, text.length(), paint, Math.max(0, width))
+                .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                .setTextDirection(direction)
+                .setBreakStrategy(BREAK_STRATEGY)
+                .setHyphenationFrequency(HYPHENATION_FREQUENCY)
+                .setMaxLines(maxLines)
+                .setEllipsize(TextUtils.TruncateAt.END)
+                .setIncludePad(false)
+                .build();
+    }
+
+    private boolean isRtl() {
+        return getLayoutDirection() == LAYOUT_DIRECTION_RTL;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        int width = getWidth();
+        int height = getHeight();
+        boolean rtl = isRtl();
+
+        if (background != null) {
+            background.setBounds(0, 0, width, height);
+            background.draw(canvas);
+        }
+
+        int start = horizontalPadding;
+        if (icon != null) {
+            Rect bounds = icon.getBounds();
+            int left = rtl ? width - start - bounds.width() : start;
+            canvas.save();
+            canvas.translate(left, (height - bounds.height()) / 2f);
+            icon.draw(canvas);
+            canvas.restore();
+            start += bounds.width() + iconPadding;
+        }
+
+        if (messageLayout != null) {
+            int left = rtl ? width - start - messageLayout.getWidth() : start;
+            canvas.save();
+            canvas.translate(left, (height - messageLayout.getHeight()) / 2f);
+            messageLayout.draw(canvas);
+            canvas.restore();
+        }
+
+        if (actionLayout != null) {
+            int end = horizontalPadding + reservedEnd;
+            int left = rtl ? end : width - end - actionLayout.getWidth();
+            int top = (height - actionLayout.getHeight()) / 2;
+            actionBounds.set(left - actionGap / 2, 0, left + actionLayout.getWidth() + actionGap / 2, height);
+            int alpha = Color.alpha(actionColor);
+            actionPaint.setAlpha(actionPressed ? alpha * 3 / 5 : alpha);
+            canvas.save();
+            canvas.translate(left, top);
+            actionLayout.draw(canvas);
+            canvas.restore();
+        }
+    }
+
+    @SuppressLint("ClickableViewAccessibility")
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        boolean inAction = actionLayout != null && actionBounds.contains((int) event.getX(), (int) event.getY());
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                if (owner != null)
+                    owner.pauseTimeout();
+                setActionPressed(inAction);
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                setActionPressed(actionPressed && inAction);
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (owner != null)
+                    owner.resumeTimeout();
+                if (actionPressed && inAction)
+                    performClick();
+                setActionPressed(false);
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                if (owner != null)
+                    owner.resumeTimeout();
+                setActionPressed(false);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void setActionPressed(boolean pressed) {
+        if (pressed != actionPressed) {
+            actionPressed = pressed;
+            invalidate();
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        super.performClick();
+        if (owner == null || action == null)
+            return false;
+        owner.onActionClicked();
+        return true;
+    }
+
+    private void updateContentDescription() {
+        setContentDescription(action != null ? message + ", " + action : message);
+        setClickable(action != null);
+    }
+}
@@ -0,0 +1,165 @@
+package com.better_snacks;
+
+import android.os.Build;
+import android.os.Process;
+import android.text.PrecomputedText;
+import android.text.TextDirectionHeuristic;
+import android.text.TextDirectionHeuristics;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.widget.TextView;
+
+import androidx.annotation.RequiresApi;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shapes and line-breaks snackbar messages on a background thread with {@link PrecomputedText},
+ * so measuring the message on the main thread only has to place the lines. The text metrics of
+ * each renderer are learned from its first shown message; until then, and for short messages,
+ * nothing is precomputed. Everything but the shaping itself runs on the main thread.
+ */
+@RequiresApi(Build.VERSION_CODES.P)
+final class MessagePrecomputer {
+
+    /**
+     * Messages shorter than this are cheaper to shape in place than to hand over.
+     */
+    private static final int MIN_LENGTH = 20;
+
+    private static MessagePrecomputer instance;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            runnable.run();
+        }, "BetterSnacks-text");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Indexed by slot(lite, rtl).
+    private final PrecomputedText.Params[] params = new PrecomputedText.Params[4];
+    private final Result[] last = new Result[4];
+
+    private MessagePrecomputer() {
+    }
+
+    static MessagePrecomputer getInstance() {
+        if (instance == null)
+            instance = new MessagePrecomputer();
+        return instance;
+    }
+
+    /**
+     * Starts precomputing the message for the given renderer and direction.
+     * @return Handle to pick the result up with at show time, or null if nothing was started.
+     */
+    Result submit(CharSequence message, boolean lite, boolean rtl) {
+        int slot = slot(lite, rtl);
+        PrecomputedText.Params target = params[slot];
+        if (target == null || message == null || message.length() < MIN_LENGTH)
+            return null;
+        // The same message again, as in a burst, shares the text already computed for it.
+        Result previous = last[slot];
+        if (previous != null && previous.params == target && TextUtils.equals(previous.message, message))
+            return previous;
+        Result result = new Result(message, target);
+        executor.execute(result);
+        last[slot] = result;
+        return result;
+    }
+
+    /**
+     * Puts the precomputed message into the Material text view if it is ready and was computed
+     * with the metrics the view measures with now. Otherwise the view keeps the plain message.
+     * @param rtl Resolved layout direction of the snackbar.
+     */
+    void apply(Result result, TextView textView, boolean rtl) {
+        // An explicit direction resolves right away, even on a view that was never attached.
+        textView.setTextDirection(rtl ? TextView.TEXT_DIRECTION_FIRST_STRONG_RTL
+                : TextView.TEXT_DIRECTION_FIRST_STRONG_LTR);
+        PrecomputedText text = result != null ? result.text : null;
+        if (text == null)
+            return;
+        if (!text.getParams().equals(textView.getTextMetricsParams())) {
+            forget(false);
+            return;
+        }
+        try {
+            textView.setText(text);
+        } catch (IllegalArgumentException e) {
+            forget(false);
+            textView.setText(result.message);
+        }
+    }
+
+    /**
+     * Returns the message to lay out in a lite view. A result computed with other metrics is
+     * still safe there, {@link android.text.StaticLayout} measures it again.
+     */
+    CharSequence textFor(Result result, CharSequence message) {
+        PrecomputedText text = result != null ? result.text : null;
+        return text != null ? text : message;
+    }
+
+    /**
+     * Learns the metrics of the Material message view, for both directions.
+     */
+    void learn(TextView textView) {
+        if (params[slot(false, false)] != null)
+            return;
+        PrecomputedText.Params seen = textView.getTextMetricsParams();
+        learn(false, new TextPaint(seen.getTextPaint()), seen.getBreakStrategy(), seen.getHyphenationFrequency());
+    }
+
+    /**
+     * Learns the metrics of the lite message, for both directions.
+     */
+    void learnLite(LiteSnackbarView liteView) {
+        if (params[slot(true, false)] == null)
+            learn(true, liteView.copyMessagePaint(), LiteSnackbarView.BREAK_STRATEGY, LiteSnackbarView.HYPHENATION_FREQUENCY);
+    }
+
+    private void learn(boolean lite, TextPaint paint, int breakStrategy, int hyphenationFrequency) {
+        params[slot(lite, false)] = build(paint, breakStrategy, hyphenationFrequency, TextDirectionHeuristics.FIRSTSTRONG_LTR);
+        params[slot(lite, true)] = build(paint, breakStrategy, hyphenationFrequency, TextDirectionHeuristics.FIRSTSTRONG_RTL);
+    }
+
+    private static PrecomputedText.Params build(TextPaint paint, int breakStrategy,
+                                                int hyphenationFrequency, TextDirectionHeuristic direction) {
+        return new PrecomputedText.Params.Builder(paint)
+                .setBreakStrategy(breakStrategy)
+                .setHyphenationFrequency(hyphenationFrequency)
+                .setTextDirection(direction)
+                .build();
+    }
+
+    private void forget(boolean lite) {
+        params[slot(lite, false)] = null;
+        params[slot(lite, true)] = null;
+        last[slot(lite, false)] = null;
+        last[slot(lite, true)] = null;
+    }
+
+    private static int slot(boolean lite, boolean rtl) {
+        return (lite ? 2 : 0) + (rtl ? 1 : 0);
+    }
+
+    static final class Result implements Runnable {
+        final CharSequence message;
+        final PrecomputedText.Params params;
+        volatile PrecomputedText text;
+
+        Result(CharSequence message, PrecomputedText.Params params) {
+            this.message = message;
+            this.params = params;
+        }
+
+        @Override
+        public void run() {
+            text = PrecomputedText.create(message, params);
+        }
+    }
+}
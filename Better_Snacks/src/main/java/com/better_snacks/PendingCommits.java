@@ -0,0 +1,115 @@
+package com.better_snacks;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ProcessLifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Holds the deferred commits of undo snackbars on the main thread until their undo window is
+ * over. Commits released in the same main-thread pass are handed to their executors together,
+ * one task per executor, and everything still pending is committed when the app goes to the
+ * background so no work is lost if the process is killed there.
+ */
+final class PendingCommits implements DefaultLifecycleObserver {
+
+    private static PendingCommits instance;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ArrayList<Commit> pending = new ArrayList<>();
+    private final ArrayList<Commit> released = new ArrayList<>();
+    private final Runnable flush = this::flush;
+    private boolean flushPosted;
+
+    private PendingCommits() {
+    }
+
+    static PendingCommits getInstance() {
+        if (instance == null) {
+            instance = new PendingCommits();
+            ProcessLifecycleOwner.get().getLifecycle().addObserver(instance);
+        }
+        return instance;
+    }
+
+    void add(Commit commit) {
+        pending.add(commit);
+    }
+
+    /**
+     * Drops a commit whose change was undone.
+     */
+    void discard(Commit commit) {
+        pending.remove(commit);
+    }
+
+    /**
+     * Queues a commit to run once the current main-thread pass is over.
+     */
+    void release(Commit commit) {
+        if (!pending.remove(commit))
+            return;
+        released.add(commit);
+        if (!flushPosted) {
+            flushPosted = true;
+            handler.post(flush);
+        }
+    }
+
+    private void flush() {
+        handler.removeCallbacks(flush);
+        flushPosted = false;
+        while (!released.isEmpty()) {
+            Executor executor = released.get(0).executor;
+            ArrayList<Runnable> group = new ArrayList<>();
+            for (int i = 0; i < released.size(); ) {
+                Commit commit = released.get(i);
+                if (commit.executor == executor) {
+                    group.add(commit.action);
+                    released.remove(i);
+                } else {
+                    i++;
+                }
+            }
+            executor.execute(() -> {
+                for (Runnable action : group)
+                    action.run();
+            });
+        }
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        ArrayList<Commit> stopped = new ArrayList<>(pending);
+        pending.clear();
+        released.addAll(stopped);
+        flush();
+        for (Commit commit : stopped) {
+            if (commit.owner == null)
+                continue;
+            // Once committed the change can no longer be undone, so its snackbar must not show.
+            if (commit.owner.isActive())
+                commit.owner.dismiss();
+            else
+                SnackbarScheduler.getInstance().cancel(commit.owner);
+        }
+    }
+
+    static final class Commit {
+        final Runnable action;
+        final Executor executor;
+        BaseSnackbar owner;
+
+        Commit(Runnable action, Executor executor, BaseSnackbar owner) {
+            this.action = action;
+            this.executor = executor;
+            this.owner = owner;
+        }
+    }
+}
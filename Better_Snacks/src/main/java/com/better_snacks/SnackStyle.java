@@ -0,0 +1,474 @@
+package com.better_snacks;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.os.VibrationEffect;
+import android.text.TextUtils;
+import android.view.View;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, fully resolved snackbar appearance and feedback settings. A style is built once,
+ * optionally registered by name, and shared by every snackbar that uses it through
+ * {@link BaseSnackbar.Builder#style(SnackStyle)}.
+ */
+public final class SnackStyle {
+
+    public static final SnackStyle DEFAULT = new Builder().build();
+
+    private static final ConcurrentHashMap<String, SnackStyle> registry = new ConcurrentHashMap<>();
+
+    private static volatile int localeDirection = -1;
+
+    final int layoutDirection;
+    final boolean userDefinedDirection;
+    final boolean hasTextColor;
+    final int textColor;
+    final boolean hasActionTextColor;
+    final int actionTextColor;
+    final Drawable icon;
+    final boolean hasIconTint;
+    final int iconTint;
+    final BaseSnackbar.AnimationType animationType;
+    final boolean vibrateOnShow;
+    final long vibrationDuration;
+    final int vibrationAmplitude;
+    final long[] vibrationPattern;
+    final int vibrationEffectId;
+    final boolean soundOnShow;
+    final int soundResId;
+
+    private final Integer backgroundColor;
+    private final int cornerRadius;
+    private final int[] gradientColors;
+    private final GradientDrawable.Orientation gradientOrientation;
+    private final int borderWidth;
+    private final int borderColor;
+
+    private volatile BackgroundCache.Key backgroundKey;
+    private volatile VibrationEffect vibrationEffect;
+    private int iconLineHeight = -1;
+    private int iconSize;
+
+    private SnackStyle(SnackStyle base, Builder builder) {
+        boolean direction = base == null || builder.isSet(Builder.LAYOUT_DIRECTION);
+        this.layoutDirection = direction ? builder.layoutDirection : base.layoutDirection;
+        this.userDefinedDirection = direction ? builder.userDefinedDirection : base.userDefinedDirection;
+
+        Integer textColor = base == null || builder.isSet(Builder.TEXT_COLOR)
+                ? builder.textColor : base.hasTextColor ? (Integer) base.textColor : null;
+        this.hasTextColor = textColor != null;
+        this.textColor = textColor != null ? textColor : Color.WHITE;
+
+        Integer actionTextColor = base == null || builder.isSet(Builder.ACTION_TEXT_COLOR)
+                ? builder.actionTextColor : base.hasActionTextColor ? (Integer) base.actionTextColor : null;
+        this.hasActionTextColor = actionTextColor != null;
+        this.actionTextColor = actionTextColor != null ? actionTextColor : Color.WHITE;
+
+        this.icon = base == null || builder.isSet(Builder.ICON) ? builder.icon : base.icon;
+        Integer iconTint = base == null || builder.isSet(Builder.ICON_TINT)
+                ? builder.iconTint : base.hasIconTint ? (Integer) base.iconTint : null;
+        this.hasIconTint = iconTint != null;
+        this.iconTint = iconTint != null ? iconTint : Color.WHITE;
+        this.animationType = base == null || builder.isSet(Builder.ANIMATION)
+                ? builder.animationType : base.animationType;
+        this.vibrateOnShow = base == null || builder.isSet(Builder.VIBRATE)
+                ? builder.vibrateOnShow : base.vibrateOnShow;
+        this.vibrationDuration = base == null || builder.isSet(Builder.VIBRATION_DURATION)
+                ? Math.max(0, builder.vibrationDuration) : base.vibrationDuration;
+        this.vibrationAmplitude = base == null || builder.isSet(Builder.VIBRATION_AMPLITUDE)
+                ? builder.vibrationAmplitude : base.vibrationAmplitude;
+        this.vibrationPattern = base == null || builder.isSet(Builder.VIBRATION_PATTERN)
+                ? (builder.vibrationPattern != null ? builder.vibrationPattern.clone() : null)
+                : base.vibrationPattern;
+        this.vibrationEffectId = base == null || builder.isSet(Builder.VIBRATION_EFFECT)
+                ? builder.vibrationEffectId : base.vibrationEffectId;
+        this.soundOnShow = base == null || builder.isSet(Builder.SOUND_ON_SHOW)
+                ? builder.soundOnShow : base.soundOnShow;
+        this.soundResId = base == null || builder.isSet(Builder.SOUND)
+                ? (builder.soundResId != null ? builder.soundResId : R.raw.default_sound)
+                : base.soundResId;
+
+        boolean background = base == null || builder.isSet(Builder.BACKGROUND);
+        this.backgroundColor = base == null || builder.isSet(Builder.BACKGROUND_COLOR)
+                ? builder.backgroundColor : base.backgroundColor;
+        this.cornerRadius = base == null || builder.isSet(Builder.CORNER_RADIUS)
+                ? builder.cornerRadius : base.cornerRadius;
+        this.gradientColors = base == null || builder.isSet(Builder.GRADIENT)
+                ? (builder.gradientColors != null ? builder.gradientColors.clone() : null)
+                : base.gradientColors;
+        this.gradientOrientation = base == null || builder.isSet(Builder.GRADIENT)
+                ? builder.gradientOrientation : base.gradientOrientation;
+        this.borderWidth = base == null || builder.isSet(Builder.BORDER)
+                ? builder.borderWidth : base.borderWidth;
+        this.borderColor = base == null || builder.isSet(Builder.BORDER)
+                ? builder.borderColor : base.borderColor;
+        if (!background)
+            this.backgroundKey = base.backgroundKey;
+    }
+
+    /**
+     * Registers a style under a name so it can be looked up anywhere with {@link #get(String)}.
+     * @param name  Style name.
+     * @param style Style to register.
+     */
+    public static void register(String name, SnackStyle style) {
+        registry.put(name, style);
+    }
+
+    /**
+     * Returns the style registered under the given name, or {@link #DEFAULT} if there is none.
+     * @param name Style name.
+     */
+    public static SnackStyle get(String name) {
+        SnackStyle style = registry.get(name);
+        return style != null ? style : DEFAULT;
+    }
+
+    static Collection<SnackStyle> registered() {
+        return registry.values();
+    }
+
+    int resolveLayoutDirection(Context context) {
+        return userDefinedDirection ? layoutDirection : localeLayoutDirection(context);
+    }
+
+    Drawable newBackground(Context context) {
+        return backgroundState(context).newDrawable();
+    }
+
+    /**
+     * Returns the shared state of the background. Styles with the same background get the same
+     * state from {@link BackgroundCache}, so a view already showing it can keep its drawable.
+     * Only the cache key is kept here, the state itself lives in the cache and goes with it on
+     * trim-memory.
+     */
+    Drawable.ConstantState backgroundState(Context context) {
+        BackgroundCache.Key key = backgroundKey;
+        if (key == null) {
+            key = new BackgroundCache.Key(cornerRadius, backgroundColor, gradientColors,
+                    gradientOrientation, borderWidth, borderColor);
+            backgroundKey = key;
+        }
+        return BackgroundCache.getInstance(context).state(key);
+    }
+
+    /**
+     * Returns the icon at the given size from {@link IconCache}. Animated icons are copied
+     * every time so each snackbar runs its own animation.
+     */
+    Drawable iconDrawable(Context context, int sizePx) {
+        return IconCache.getInstance(context).obtain(icon, sizePx, hasIconTint, iconTint);
+    }
+
+    /**
+     * Resolves the vibration once: a predefined effect if one is set and supported, otherwise
+     * the pattern, otherwise a one-shot of the configured duration and amplitude.
+     */
+    VibrationEffect vibrationEffect(HapticEngine engine) {
+        VibrationEffect effect = vibrationEffect;
+        if (effect == null) {
+            if (vibrationEffectId != -1)
+                effect = engine.predefined(vibrationEffectId);
+            if (effect == null && vibrationPattern != null)
+                effect = engine.waveform(vibrationPattern);
+            if (effect == null)
+                effect = engine.oneShot(vibrationDuration, vibrationAmplitude);
+            vibrationEffect = effect;
+        }
+        return effect;
+    }
+
+    int iconSize(int lineHeight) {
+        if (lineHeight != iconLineHeight) {
+            iconSize = (int) (lineHeight * 0.9f);
+            iconLineHeight = lineHeight;
+        }
+        return iconSize;
+    }
+
+    /**
+     * Returns the layout direction of the default locale. The value is cached and only
+     * resolved again after a configuration change.
+     */
+    static int localeLayoutDirection(Context context) {
+        int direction = localeDirection;
+        if (direction == -1) {
+            synchronized (SnackStyle.class) {
+                if (localeDirection == -1) {
+                    context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks() {
+                        @Override
+                        public void onConfigurationChanged(Configuration newConfig) {
+                            localeDirection = TextUtils.getLayoutDirectionFromLocale(Locale.getDefault());
+                        }
+
+                        @Override
+                        public void onLowMemory() {
+                        }
+                    });
+                    localeDirection = TextUtils.getLayoutDirectionFromLocale(Locale.getDefault());
+                }
+                direction = localeDirection;
+            }
+        }
+        return direction;
+    }
+
+    public static class Builder {
+        static final int LAYOUT_DIRECTION = 1;
+        static final int BACKGROUND_COLOR = 1 << 1;
+        static final int TEXT_COLOR = 1 << 2;
+        static final int ACTION_TEXT_COLOR = 1 << 3;
+        static final int ICON = 1 << 4;
+        static final int ANIMATION = 1 << 5;
+        static final int VIBRATE = 1 << 6;
+        static final int VIBRATION_DURATION = 1 << 7;
+        static final int SOUND_ON_SHOW = 1 << 8;
+        static final int SOUND = 1 << 9;
+        static final int CORNER_RADIUS = 1 << 10;
+        static final int GRADIENT = 1 << 11;
+        static final int BORDER = 1 << 12;
+        static final int VIBRATION_AMPLITUDE = 1 << 13;
+        static final int VIBRATION_PATTERN = 1 << 14;
+        static final int VIBRATION_EFFECT = 1 << 15;
+        static final int ICON_TINT = 1 << 16;
+        static final int BACKGROUND = BACKGROUND_COLOR | CORNER_RADIUS | GRADIENT | BORDER;
+
+        private final SnackStyle base;
+        private int setFields;
+        private int layoutDirection = View.LAYOUT_DIRECTION_LOCALE;
+        private boolean userDefinedDirection = false;
+        private Integer backgroundColor;
+        private Integer textColor;
+        private Integer actionTextColor;
+        private Drawable icon;
+        private Integer iconTint;
+        private BaseSnackbar.AnimationType animationType = BaseSnackbar.AnimationType.NONE;
+        private boolean vibrateOnShow = false;
+        private long vibrationDuration = 150;
+        private int vibrationAmplitude = VibrationEffect.DEFAULT_AMPLITUDE;
+        private long[] vibrationPattern;
+        private int vibrationEffectId = -1;
+        private boolean soundOnShow = false;
+        private Integer soundResId;
+        private int cornerRadius;
+        private int[] gradientColors;
+        private GradientDrawable.Orientation gradientOrientation;
+        private int borderWidth;
+        private int borderColor = -1;
+
+        public Builder() {
+            this.base = null;
+        }
+
+        /**
+         * Starts from an existing style; only the values set on this builder are replaced.
+         * @param base Style to derive from.
+         */
+        public Builder(SnackStyle base) {
+            this.base = base;
+        }
+
+        boolean isSet(int field) {
+            return (setFields & field) != 0;
+        }
+
+        /**
+         * Sets the layout direction (LTR or RTL).
+         * @param direction View.LAYOUT_DIRECTION_LTR or RTL.
+         */
+        public Builder layoutDirection(int direction) {
+            this.layoutDirection = direction;
+            this.userDefinedDirection = true;
+            setFields |= LAYOUT_DIRECTION;
+            return this;
+        }
+
+        /**
+         * Sets the background color.
+         * @param color Background color integer.
+         */
+        public Builder backgroundColor(int color) {
+            this.backgroundColor = color;
+            setFields |= BACKGROUND_COLOR;
+            return this;
+        }
+
+        /**
+         * Sets the message text color.
+         * @param color Color integer.
+         */
+        public Builder textColor(int color) {
+            this.textColor = color;
+            setFields |= TEXT_COLOR;
+            return this;
+        }
+
+        /**
+         * Sets the action text color.
+         * @param color Color integer.
+         */
+        public Builder actionTextColor(int color) {
+            this.actionTextColor = color;
+            setFields |= ACTION_TEXT_COLOR;
+            return this;
+        }
+
+        /**
+         * Sets an icon to appear alongside the message.
+         * @param icon Drawable to use.
+         */
+        public Builder icon(Drawable icon) {
+            this.icon = icon;
+            setFields |= ICON;
+            return this;
+        }
+
+        /**
+         * Tints the icon. The caller's drawable is not modified.
+         * @param color Tint color.
+         */
+        public Builder iconTint(int color) {
+            this.iconTint = color;
+            setFields |= ICON_TINT;
+            return this;
+        }
+
+        /**
+         * Sets the animation type.
+         * @param animationType The type of animation to apply.
+         */
+        public Builder animation(BaseSnackbar.AnimationType animationType) {
+            this.animationType = animationType;
+            setFields |= ANIMATION;
+            return this;
+        }
+
+        /**
+         * Enables vibration when showing the snackbar.
+         * @param vibrate True to enable.
+         */
+        public Builder vibrateOnShow(boolean vibrate) {
+            this.vibrateOnShow = vibrate;
+            setFields |= VIBRATE;
+            return this;
+        }
+
+        /**
+         * Sets how long the vibration should last.
+         * @param millis Duration in milliseconds.
+         */
+        public Builder vibrationDuration(long millis) {
+            this.vibrationDuration = millis;
+            setFields |= VIBRATION_DURATION;
+            return this;
+        }
+
+        /**
+         * Sets the vibration strength.
+         * @param amplitude 1-255, or VibrationEffect.DEFAULT_AMPLITUDE.
+         */
+        public Builder vibrationAmplitude(int amplitude) {
+            this.vibrationAmplitude = amplitude;
+            setFields |= VIBRATION_AMPLITUDE;
+            return this;
+        }
+
+        /**
+         * Vibrates with a pattern instead of a single pulse.
+         * @param timings Alternating off/on durations in milliseconds, starting with a delay.
+         */
+        public Builder vibrationPattern(long[] timings) {
+            this.vibrationPattern = timings;
+            setFields |= VIBRATION_PATTERN;
+            return this;
+        }
+
+        /**
+         * Uses a predefined system effect, falling back to the pulse or pattern before Android 10.
+         * @param effectId A VibrationEffect.EFFECT_* constant.
+         */
+        public Builder vibrationEffect(int effectId) {
+            this.vibrationEffectId = effectId;
+            setFields |= VIBRATION_EFFECT;
+            return this;
+        }
+
+        /**
+         * Enables sound when showing the snackbar.
+         * @param sound True to enable.
+         */
+        public Builder soundOnShow(boolean sound) {
+            this.soundOnShow = sound;
+            setFields |= SOUND_ON_SHOW;
+            return this;
+        }
+
+        /**
+         * Sets a specific raw sound resource to play.
+         * @param rawResId Resource ID of the sound.
+         */
+        public Builder sound(int rawResId) {
+            this.soundResId = rawResId;
+            setFields |= SOUND;
+            return this;
+        }
+
+        /**
+         * Sets the corner radius of the snackbar.
+         * @param radius pixel radius int.
+         */
+        public Builder cornerRadius(int radius) {
+            this.cornerRadius = radius;
+            setFields |= CORNER_RADIUS;
+            return this;
+        }
+
+        /**
+         * Sets a gradient background.
+         * @param gradientColors      An array of at least two colors.
+         * @param gradientOrientation The direction/orientation of the gradient.
+         */
+        public Builder gradient(int[] gradientColors, GradientDrawable.Orientation gradientOrientation) {
+            this.gradientColors = gradientColors;
+            this.gradientOrientation = gradientOrientation;
+            setFields |= GRADIENT;
+            return this;
+        }
+
+        /**
+         * Sets a border (stroke) around the background.
+         * @param borderColor The color of the border.
+         * @param borderWidth The width of the border in pixels.
+         */
+        public Builder border(int borderColor, int borderWidth) {
+            this.borderColor = borderColor;
+            this.borderWidth = borderWidth;
+            setFields |= BORDER;
+            return this;
+        }
+
+        /**
+         * Builds the immutable style.
+         */
+        public SnackStyle build() {
+            return buildOn(base);
+        }
+
+        /**
+         * Builds a style that takes every value not set on this builder from the given base.
+         */
+        SnackStyle buildOn(SnackStyle base) {
+            if (base != null && setFields == 0)
+                return base;
+            return new SnackStyle(base, this);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.better_snacks;
+
+import android.animation.TimeInterpolator;
+import android.view.View;
+import android.view.ViewPropertyAnimator;
+import android.view.animation.AccelerateInterpolator;
+import android.view.animation.DecelerateInterpolator;
+
+import com.google.android.material.snackbar.BaseTransientBottomBar;
+
+/**
+ * Entrance and exit animations for {@link BaseSnackbar.AnimationType}. Animations run on a
+ * hardware layer with shared interpolators, and an exit always starts from wherever an
+ * in-flight entrance currently is.
+ */
+final class SnackbarAnimator {
+
+    static final long ENTER_DURATION = 400;
+    static final long EXIT_DURATION = 250;
+
+    private static final TimeInterpolator DECELERATE = new DecelerateInterpolator();
+    private static final TimeInterpolator ACCELERATE = new AccelerateInterpolator();
+
+    private SnackbarAnimator() {
+    }
+
+    /**
+     * Returns the Material animation mode that does not touch the properties our own
+     * animation drives, so the two never fight over the same value.
+     */
+    static int materialAnimationMode(BaseSnackbar.AnimationType type) {
+        return type == BaseSnackbar.AnimationType.SLIDE_IN_BOTTOM
+                ? BaseTransientBottomBar.ANIMATION_MODE_FADE
+                : BaseTransientBottomBar.ANIMATION_MODE_SLIDE;
+    }
+
+    /**
+     * Starts the entrance. Meant to be called from a pre-draw callback, so the first frame
+     * is already drawn from the start values.
+     * @param endAction Run when the entrance finishes, may be null.
+     */
+    static void animateIn(View view, BaseSnackbar.AnimationType type, Runnable endAction) {
+        ViewPropertyAnimator animator;
+        switch (type) {
+            case SLIDE_IN_BOTTOM:
+                view.setTranslationY(view.getHeight());
+                animator = view.animate().translationY(0);
+                break;
+            case FADE_IN:
+                view.setAlpha(0f);
+                animator = view.animate().alpha(1f);
+                break;
+            case SCALE:
+                view.setScaleX(0.4f);
+                view.setScaleY(0.4f);
+                animator = view.animate().scaleX(1f).scaleY(1f);
+                break;
+            case NONE:
+            default:
+                return;
+        }
+        if (endAction != null)
+            animator.withEndAction(endAction);
+        start(animator, ENTER_DURATION, DECELERATE);
+    }
+
+    /**
+     * Runs the exit matching the entrance, interrupting the entrance if it is still running.
+     * @param endAction Run once the view is fully hidden, or right away for {@code NONE}.
+     */
+    static void animateOut(View view, BaseSnackbar.AnimationType type, Runnable endAction) {
+        view.animate().cancel();
+        ViewPropertyAnimator animator;
+        switch (type) {
+            case SLIDE_IN_BOTTOM:
+                animator = view.animate().translationY(view.getHeight());
+                break;
+            case FADE_IN:
+                animator = view.animate().alpha(0f);
+                break;
+            case SCALE:
+                animator = view.animate().scaleX(0.4f).scaleY(0.4f).alpha(0f);
+                break;
+            case NONE:
+            default:
+                endAction.run();
+                return;
+        }
+        start(animator.withEndAction(endAction), EXIT_DURATION, ACCELERATE);
+    }
+
+    private static void start(ViewPropertyAnimator animator, long duration, TimeInterpolator interpolator) {
+        animator.setDuration(duration)
+                .setInterpolator(interpolator)
+                .setStartDelay(0)
+                .withLayer()
+                .start();
+    }
+}
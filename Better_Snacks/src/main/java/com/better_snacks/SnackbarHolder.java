@@ -0,0 +1,159 @@
+package com.better_snacks;
+
+import android.annotation.SuppressLint;
+import android.content.res.ColorStateList;
+import android.graphics.drawable.Drawable;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.TextView;
+
+import com.google.android.material.snackbar.Snackbar;
+
+/**
+ * An inflated Material snackbar together with the views {@link BaseSnackbar} styles,
+ * so a recycled hierarchy never has to be searched again.
+ */
+final class SnackbarHolder extends Snackbar.Callback
+        implements View.OnTouchListener, View.OnClickListener, ViewTreeObserver.OnPreDrawListener {
+
+    final Snackbar snackbar;
+    final View snackbarView;
+    final TextView textView;
+    final TextView actionView;
+    final ViewGroup contentLayout;
+    final ViewGroup parent;
+
+    private final ColorStateList defaultTextColors;
+    private final ColorStateList defaultActionTextColors;
+    private final int defaultContentPaddingStart;
+    private final int defaultContentPaddingEnd;
+
+    BaseSnackbar owner;
+    private ViewTreeObserver frameObserver;
+    private Drawable.ConstantState backgroundState;
+
+    @SuppressLint("ClickableViewAccessibility")
+    SnackbarHolder(Snackbar snackbar, ViewGroup parent) {
+        this.snackbar = snackbar;
+        this.parent = parent;
+        this.snackbarView = snackbar.getView();
+        this.textView = snackbarView.findViewById(com.google.android.material.R.id.snackbar_text);
+        this.actionView = snackbarView.findViewById(com.google.android.material.R.id.snackbar_action);
+        this.contentLayout = (ViewGroup) textView.getParent();
+        this.defaultTextColors = textView.getTextColors();
+        this.defaultActionTextColors = actionView.getTextColors();
+        this.defaultContentPaddingStart = contentLayout.getPaddingStart();
+        this.defaultContentPaddingEnd = contentLayout.getPaddingEnd();
+        snackbar.addCallback(this);
+        snackbarView.setOnTouchListener(this);
+        actionView.setOnClickListener(this);
+    }
+
+    /**
+     * Calls {@link BaseSnackbar#onFirstFrame()} on the owner right before the snackbar is first drawn.
+     */
+    void awaitFirstFrame() {
+        removeFrameListener();
+        frameObserver = (parent != null ? parent : snackbarView).getViewTreeObserver();
+        frameObserver.addOnPreDrawListener(this);
+    }
+
+    /**
+     * Shows the action with the given text. The click goes to the owner rather than through
+     * {@link Snackbar#setAction}, whose listener would run Material's exit instead of ours.
+     */
+    void bindAction(CharSequence text) {
+        actionView.setText(text);
+        actionView.setVisibility(View.VISIBLE);
+    }
+
+    @Override
+    public void onClick(View v) {
+        if (owner != null)
+            owner.onActionClicked();
+    }
+
+    /**
+     * Sets the content background, keeping the current drawable if it already has this state.
+     */
+    void applyBackground(Drawable.ConstantState state) {
+        if (state != backgroundState) {
+            contentLayout.setBackground(state.newDrawable());
+            backgroundState = state;
+        }
+    }
+
+    @Override
+    public boolean onPreDraw() {
+        if (snackbarView.getVisibility() == View.VISIBLE && snackbarView.isAttachedToWindow()) {
+            removeFrameListener();
+            if (owner != null)
+                owner.onFirstFrame();
+        }
+        return true;
+    }
+
+    /**
+     * Replaces Material's listener, which consumes every touch on the snackbar, so it has to
+     * consume them too: taps must not reach the views behind it, and only a consumed down gets
+     * the up or cancel that resumes the timeout. A swipe to dismiss arrives here as a cancel.
+     */
+    @Override
+    public boolean onTouch(View v, MotionEvent event) {
+        if (owner != null) {
+            int action = event.getActionMasked();
+            if (action == MotionEvent.ACTION_DOWN)
+                owner.pauseTimeout();
+            else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL)
+                owner.resumeTimeout();
+        }
+        return true;
+    }
+
+    private void removeFrameListener() {
+        if (frameObserver != null) {
+            if (frameObserver.isAlive())
+                frameObserver.removeOnPreDrawListener(this);
+            frameObserver = null;
+        }
+    }
+
+    @Override
+    public void onDismissed(Snackbar transientBottomBar, int event) {
+        BaseSnackbar dismissed = owner;
+        owner = null;
+        if (dismissed != null)
+            dismissed.onDismissed(dismissed.resolveDismissEvent(event));
+        reset();
+        SnackbarPool.release(this);
+    }
+
+    /**
+     * Restores everything {@link BaseSnackbar#applyVisuals(Snackbar)} and the animations may have changed.
+     */
+    void reset() {
+        removeFrameListener();
+        snackbarView.animate().cancel();
+        snackbarView.setVisibility(View.VISIBLE);
+        snackbarView.setAlpha(1f);
+        snackbarView.setTranslationX(0f);
+        snackbarView.setTranslationY(0f);
+        snackbarView.setScaleX(1f);
+        snackbarView.setScaleY(1f);
+        snackbarView.setLayoutDirection(View.LAYOUT_DIRECTION_INHERIT);
+        snackbarView.getOverlay().clear();
+        contentLayout.setPaddingRelative(defaultContentPaddingStart, contentLayout.getPaddingTop(),
+                defaultContentPaddingEnd, contentLayout.getPaddingBottom());
+
+        textView.setCompoundDrawables(null, null, null, null);
+        textView.setCompoundDrawablePadding(0);
+        textView.setTextColor(defaultTextColors);
+        actionView.setTextColor(defaultActionTextColors);
+
+        actionView.setVisibility(View.GONE);
+        snackbar.setDuration(Snackbar.LENGTH_INDEFINITE);
+        snackbar.setAnimationMode(Snackbar.ANIMATION_MODE_SLIDE);
+    }
+}
@@ -0,0 +1,181 @@
+package com.better_snacks;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Bundle;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.coordinatorlayout.widget.CoordinatorLayout;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+
+/**
+ * Optional application-wide home for snackbars. Once installed, a single overlay container is
+ * kept on top of the resumed Activity's content and moved along as the user navigates, so
+ * its pooled snackbar views are reused on every screen. Snackbars showing when it moves are
+ * carried over to the new screen with the time they had left, without a new entrance.
+ * Snackbars anchored inside a {@link CoordinatorLayout} keep using it, so they still move
+ * floating action buttons out of the way.
+ */
+public final class SnackbarHost implements Application.ActivityLifecycleCallbacks {
+
+    private static SnackbarHost instance;
+
+    private final Application application;
+    private final ArrayList<BaseSnackbar> showing = new ArrayList<>();
+    private final ArrayList<BaseSnackbar> carried = new ArrayList<>();
+    private CoordinatorLayout container;
+    private Activity activity;
+    private int containerUiMode;
+    private int containerDensityDpi;
+
+    private SnackbarHost(Application application) {
+        this.application = application;
+    }
+
+    /**
+     * Starts hosting snackbars for every Activity of the app. Calling it again does nothing.
+     * Must be called on the main thread, typically from {@code Application.onCreate}.
+     * @param application The application.
+     */
+    public static void install(Application application) {
+        if (instance != null)
+            return;
+        instance = new SnackbarHost(application);
+        application.registerActivityLifecycleCallbacks(instance);
+    }
+
+    /**
+     * Returns true once {@link #install(Application)} was called.
+     */
+    public static boolean isInstalled() {
+        return instance != null;
+    }
+
+    /**
+     * Returns the view a snackbar for the given anchor should be made from: the host container
+     * if it is on the anchor's screen and the anchor is not inside a CoordinatorLayout.
+     */
+    static View anchorFor(View anchor) {
+        SnackbarHost host = instance;
+        if (host != null && anchor == host.container)
+            return anchor;
+        if (host == null || host.container == null || !host.container.isAttachedToWindow()
+                || host.container.getRootView() != anchor.getRootView()
+                || SnackbarPool.findSuitableParent(anchor) instanceof CoordinatorLayout)
+            return anchor;
+        return host.container;
+    }
+
+    static void onShown(BaseSnackbar snackbar, View anchor) {
+        if (instance != null && anchor == instance.container && !instance.showing.contains(snackbar))
+            instance.showing.add(snackbar);
+    }
+
+    static void onDismissed(BaseSnackbar snackbar) {
+        if (instance != null)
+            instance.showing.remove(snackbar);
+    }
+
+    private void attach(Activity activity) {
+        ViewGroup content = activity.findViewById(android.R.id.content);
+        if (content == null)
+            return;
+        if (container != null && container.getParent() == content)
+            return;
+
+        detach();
+        Configuration config = activity.getResources().getConfiguration();
+        int uiMode = config.uiMode & Configuration.UI_MODE_NIGHT_MASK;
+        if (container == null || uiMode != containerUiMode || config.densityDpi != containerDensityDpi) {
+            // Built on the application context with a copy of the theme, so it outlives the Activity.
+            Resources.Theme theme = application.getResources().newTheme();
+            theme.setTo(activity.getTheme());
+            container = new CoordinatorLayout(new ContextThemeWrapper(application, theme));
+            containerUiMode = uiMode;
+            containerDensityDpi = config.densityDpi;
+        }
+        content.addView(container, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        this.activity = activity;
+
+        if (carried.isEmpty())
+            return;
+        ArrayList<BaseSnackbar> snackbars = new ArrayList<>(carried);
+        carried.clear();
+        LifecycleOwner owner = activity instanceof LifecycleOwner ? (LifecycleOwner) activity : null;
+        View target = container;
+        // Runs after Material has finished hiding the detached views, so they are back in the pool.
+        target.post(() -> {
+            if (target != container || !target.isAttachedToWindow()) {
+                carried.addAll(snackbars);
+                return;
+            }
+            for (BaseSnackbar snackbar : snackbars)
+                snackbar.showCarriedOver(target, owner);
+        });
+    }
+
+    /**
+     * Removes the container from its Activity, taking the snackbars showing in it along.
+     */
+    private void detach() {
+        if (container == null || container.getParent() == null)
+            return;
+        for (BaseSnackbar snackbar : new ArrayList<>(showing)) {
+            snackbar.detachForTransfer();
+            carried.add(snackbar);
+        }
+        showing.clear();
+        ((ViewGroup) container.getParent()).removeView(container);
+        activity = null;
+    }
+
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {
+        attach(activity);
+    }
+
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {
+        if (activity == this.activity && activity.isChangingConfigurations())
+            detach();
+    }
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {
+        if (activity != this.activity)
+            return;
+        if (activity.isChangingConfigurations()) {
+            detach();
+        } else {
+            showing.clear();
+            ViewGroup parent = container != null ? (ViewGroup) container.getParent() : null;
+            if (parent != null)
+                parent.removeView(container);
+            this.activity = null;
+        }
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.better_snacks;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.lifecycle.ViewModelStoreOwner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ties snackbars to the lifecycle of the screen they are shown on. When it is destroyed,
+ * everything queued or showing for it is cancelled and lets go of its views, so nothing keeps
+ * the Activity alive. If the Activity is only being recreated for a configuration change, the
+ * queued snackbars are kept in its {@link ViewModel} store, with no view attached, and queued
+ * again on the new instance once it starts.
+ */
+final class SnackbarLifecycle {
+
+    private static Application callbacksApplication;
+    private static int stashedCount;
+
+    private SnackbarLifecycle() {
+    }
+
+    /**
+     * Returns the lifecycle owner behind a view's context, usually its Activity, or null.
+     */
+    static LifecycleOwner findOwner(Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof LifecycleOwner)
+                return (LifecycleOwner) context;
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+
+    /**
+     * Observes the owner on behalf of the snackbar until it is unbound or the owner is destroyed.
+     * @return The observer, or null if the owner is already destroyed.
+     */
+    static Binding bind(BaseSnackbar snackbar, LifecycleOwner owner, Context context) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED)
+            return null;
+        registerCallbacks(context);
+        Binding binding = new Binding(snackbar, lifecycle);
+        lifecycle.addObserver(binding);
+        return binding;
+    }
+
+    private static void registerCallbacks(Context context) {
+        Context appContext = context.getApplicationContext();
+        if (appContext instanceof Application && appContext != callbacksApplication) {
+            callbacksApplication = (Application) appContext;
+            callbacksApplication.registerActivityLifecycleCallbacks(new RestoreCallbacks());
+        }
+    }
+
+    private static void onDestroy(BaseSnackbar snackbar, LifecycleOwner owner) {
+        List<BaseSnackbar> pending = SnackbarScheduler.getInstance().removeOwnedBy(owner);
+        if (!pending.isEmpty()) {
+            Activity activity = owner instanceof Activity ? (Activity) owner : null;
+            boolean stashed = false;
+            if (activity != null && activity.isChangingConfigurations() && activity instanceof ViewModelStoreOwner) {
+                Stash stash = Stash.of((ViewModelStoreOwner) activity);
+                stash.snackbars.addAll(pending);
+                stashedCount += pending.size();
+                stashed = true;
+            }
+            for (BaseSnackbar queued : pending) {
+                queued.release();
+                if (!stashed)
+                    queued.onDropped();
+            }
+        }
+        snackbar.release();
+    }
+
+    static final class Binding implements DefaultLifecycleObserver {
+        private final BaseSnackbar snackbar;
+        private final Lifecycle lifecycle;
+
+        Binding(BaseSnackbar snackbar, Lifecycle lifecycle) {
+            this.snackbar = snackbar;
+            this.lifecycle = lifecycle;
+        }
+
+        void unbind() {
+            lifecycle.removeObserver(this);
+        }
+
+        @Override
+        public void onDestroy(@NonNull LifecycleOwner owner) {
+            unbind();
+            SnackbarLifecycle.onDestroy(snackbar, owner);
+        }
+    }
+
+    /**
+     * Queued snackbars waiting for the next instance of a recreated Activity.
+     */
+    static final class Stash extends ViewModel {
+        private static final ViewModelProvider.Factory FACTORY = new ViewModelProvider.Factory() {
+            @NonNull
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T extends ViewModel> T create(@NonNull Class<T> modelClass) {
+                return (T) new Stash();
+            }
+        };
+
+        final ArrayList<BaseSnackbar> snackbars = new ArrayList<>();
+
+        static Stash of(ViewModelStoreOwner owner) {
+            return new ViewModelProvider(owner.getViewModelStore(), FACTORY).get(Stash.class);
+        }
+
+        @Override
+        protected void onCleared() {
+            stashedCount -= snackbars.size();
+            for (BaseSnackbar snackbar : snackbars)
+                snackbar.onDropped();
+            snackbars.clear();
+        }
+    }
+
+    private static final class RestoreCallbacks implements Application.ActivityLifecycleCallbacks {
+        @Override
+        public void onActivityStarted(@NonNull Activity activity) {
+            if (stashedCount == 0 || !(activity instanceof ViewModelStoreOwner))
+                return;
+            Stash stash = Stash.of((ViewModelStoreOwner) activity);
+            if (stash.snackbars.isEmpty())
+                return;
+            ArrayList<BaseSnackbar> restored = new ArrayList<>(stash.snackbars);
+            stashedCount -= restored.size();
+            stash.snackbars.clear();
+            for (BaseSnackbar snackbar : restored) {
+                snackbar.reattach(activity);
+                SnackbarScheduler.getInstance().enqueue(snackbar);
+            }
+        }
+
+        @Override
+        public void onActivityCreated(@NonNull Activity activity, Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityResumed(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(@NonNull Activity activity) {
+        }
+    }
+}
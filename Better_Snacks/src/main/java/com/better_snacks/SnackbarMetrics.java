@@ -0,0 +1,40 @@
+package com.better_snacks;
+
+/**
+ * Receives timings for every snackbar phase. Install one with
+ * {@link BetterSnacks#setMetrics(SnackbarMetrics)}; while {@link #NONE} is installed the library
+ * does not read the clock at all. Callbacks arrive on the thread that ran the phase, usually main.
+ */
+public interface SnackbarMetrics {
+
+    enum Phase {
+        /** Constructing the snackbar from its builder. */
+        BUILD,
+        /** From {@code show()} to the first frame the snackbar is drawn in. */
+        SHOW_TO_FIRST_FRAME,
+        /** Applying style, icon and background to the snackbar views. */
+        APPLY_VISUALS,
+        /** Running the entrance animation. */
+        ANIMATION,
+        /** Dispatching the sound to the audio engine. */
+        SOUND_DISPATCH,
+        /** Dispatching the vibration to the haptic engine. */
+        VIBRATION_DISPATCH,
+        /** From the first frame until the action was clicked. */
+        ACTION,
+        /** From the first frame until the duration ran out. */
+        TIMEOUT,
+        /** From the first frame until the snackbar was dismissed any other way. */
+        DISMISS
+    }
+
+    SnackbarMetrics NONE = (type, phase, durationNanos) -> { };
+
+    /**
+     * Called once per phase per snackbar.
+     * @param type          Concrete snackbar class.
+     * @param phase         Phase that finished.
+     * @param durationNanos How long it took.
+     */
+    void onTiming(Class<? extends BaseSnackbar> type, Phase phase, long durationNanos);
+}
@@ -0,0 +1,132 @@
+package com.better_snacks;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.widget.FrameLayout;
+
+import androidx.coordinatorlayout.widget.CoordinatorLayout;
+
+import com.google.android.material.snackbar.Snackbar;
+
+import java.util.ArrayDeque;
+
+/**
+ * Recycles inflated Material snackbars per parent container, so repeated shows on the same
+ * screen skip layout inflation. The pool is stored as a tag on the container it belongs to
+ * and goes away together with that view hierarchy.
+ */
+public final class SnackbarPool {
+
+    private static final int MAX_POOLED_PER_PARENT = 2;
+
+    private SnackbarPool() {
+    }
+
+    /**
+     * Returns the number of idle snackbar hierarchies ready for the given anchor.
+     * @param anchor View a snackbar would be shown from.
+     */
+    public static int getPooledCount(View anchor) {
+        ViewGroup parent = findSuitableParent(anchor);
+        ArrayDeque<SnackbarHolder> pool = parent != null ? getPool(parent, false) : null;
+        return pool != null ? pool.size() : 0;
+    }
+
+    /**
+     * Inflates snackbar hierarchies for the anchor's container while the main thread is idle,
+     * one per idle pass, so the first snackbar shown there skips inflation. Call it when a
+     * screen is created if it is likely to show a snackbar soon after.
+     * @param anchor View snackbars will be shown from.
+     * @param count  Number of hierarchies to have ready, at most 2.
+     */
+    public static void preInflate(View anchor, int count) {
+        if (Looper.myLooper() != Looper.getMainLooper())
+            throw new IllegalStateException("preInflate must be called on the main thread");
+        anchor = SnackbarHost.anchorFor(anchor);
+        ViewGroup parent = findSuitableParent(anchor);
+        int target = Math.min(count, MAX_POOLED_PER_PARENT);
+        if (parent != null && target > 0)
+            Looper.myQueue().addIdleHandler(new PreInflater(anchor, parent, target));
+    }
+
+    static SnackbarHolder acquire(View anchor, CharSequence message) {
+        ViewGroup parent = findSuitableParent(anchor);
+        ArrayDeque<SnackbarHolder> pool = parent != null ? getPool(parent, false) : null;
+        SnackbarHolder holder = pool != null ? pool.pollFirst() : null;
+        if (holder != null) {
+            holder.snackbar.setText(message);
+            return holder;
+        }
+        return new SnackbarHolder(Snackbar.make(anchor, message, Snackbar.LENGTH_INDEFINITE), parent);
+    }
+
+    static void release(SnackbarHolder holder) {
+        if (holder.parent == null)
+            return;
+        ArrayDeque<SnackbarHolder> pool = getPool(holder.parent, true);
+        if (pool.size() < MAX_POOLED_PER_PARENT && !pool.contains(holder))
+            pool.addFirst(holder);
+    }
+
+    /**
+     * Fills the pool one hierarchy per idle pass, stopping once the target is reached or the
+     * container has left the window after being attached.
+     */
+    private static final class PreInflater implements MessageQueue.IdleHandler {
+        private final View anchor;
+        private final ViewGroup parent;
+        private final int target;
+        private final boolean wasAttached;
+
+        PreInflater(View anchor, ViewGroup parent, int target) {
+            this.anchor = anchor;
+            this.parent = parent;
+            this.target = target;
+            this.wasAttached = parent.isAttachedToWindow();
+        }
+
+        @Override
+        public boolean queueIdle() {
+            if (wasAttached && !parent.isAttachedToWindow())
+                return false;
+            ArrayDeque<SnackbarHolder> pool = getPool(parent, true);
+            if (pool.size() >= target)
+                return false;
+            pool.addLast(new SnackbarHolder(Snackbar.make(anchor, "", Snackbar.LENGTH_INDEFINITE), parent));
+            return pool.size() < target;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArrayDeque<SnackbarHolder> getPool(ViewGroup parent, boolean create) {
+        ArrayDeque<SnackbarHolder> pool = (ArrayDeque<SnackbarHolder>) parent.getTag(R.id.better_snacks_pool);
+        if (pool == null && create) {
+            pool = new ArrayDeque<>(MAX_POOLED_PER_PARENT);
+            parent.setTag(R.id.better_snacks_pool, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Mirrors the container lookup done by {@link Snackbar#make}, so a pooled snackbar is only
+     * reused for anchors it would have been attached to anyway.
+     */
+    static ViewGroup findSuitableParent(View view) {
+        ViewGroup fallback = null;
+        while (view != null) {
+            if (view instanceof CoordinatorLayout)
+                return (ViewGroup) view;
+            if (view instanceof FrameLayout) {
+                if (view.getId() == android.R.id.content)
+                    return (ViewGroup) view;
+                fallback = (ViewGroup) view;
+            }
+            ViewParent parent = view.getParent();
+            view = parent instanceof View ? (View) parent : null;
+        }
+        return fallback;
+    }
+}
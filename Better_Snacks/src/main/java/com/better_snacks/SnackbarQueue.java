@@ -0,0 +1,148 @@
+package com.better_snacks;
+
+import android.text.TextUtils;
+
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Pending snackbars of a single window, ordered by priority and then by arrival.
+ * Holds no views of its own so the ordering rules can be exercised off-device.
+ */
+final class SnackbarQueue {
+
+    private final PriorityQueue<Entry> pending = new PriorityQueue<>();
+    private long sequence;
+    int active;
+
+    /**
+     * Adds a snackbar, replacing pending duplicates of it. Snackbars that may not be collapsed,
+     * such as undo snackbars with their own callbacks, are never replaced or replace others.
+     * @return Number of pending entries the new one replaced.
+     */
+    int offer(BaseSnackbar snackbar, long now) {
+        int merged = 0;
+        int priority = snackbar.priority;
+        Iterator<Entry> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (isDuplicate(entry.snackbar, snackbar)) {
+                priority = Math.max(priority, entry.priority);
+                iterator.remove();
+                entry.snackbar.onDropped();
+                merged++;
+            }
+        }
+        pending.add(new Entry(snackbar, priority, sequence++, now));
+        return merged;
+    }
+
+    /**
+     * Drops the lowest priority, most recent entry if the queue is longer than allowed.
+     * @return True if an entry was dropped.
+     */
+    boolean trimTo(int maxQueued) {
+        if (pending.size() <= maxQueued)
+            return false;
+        Entry lowest = null;
+        for (Entry entry : pending) {
+            if (lowest == null || entry.compareTo(lowest) > 0)
+                lowest = entry;
+        }
+        pending.remove(lowest);
+        lowest.snackbar.onDropped();
+        return true;
+    }
+
+    /**
+     * Returns true if the next entry is below normal priority and has waited too long.
+     */
+    boolean headIsStale(long now, long staleAfterMillis) {
+        Entry head = pending.peek();
+        return head != null
+                && head.priority < SnackbarScheduler.PRIORITY_NORMAL
+                && now - head.enqueuedAt > staleAfterMillis;
+    }
+
+    BaseSnackbar poll() {
+        Entry head = pending.poll();
+        return head != null ? head.snackbar : null;
+    }
+
+    boolean remove(BaseSnackbar snackbar) {
+        Iterator<Entry> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().snackbar == snackbar) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the entries bound to the given lifecycle owner, leaving everyone else's in place.
+     * @return The removed snackbars, in the order they would have been shown.
+     */
+    List<BaseSnackbar> removeOwnedBy(LifecycleOwner owner) {
+        ArrayList<Entry> owned = null;
+        Iterator<Entry> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.snackbar.getLifecycleOwner() != owner)
+                continue;
+            if (owned == null)
+                owned = new ArrayList<>();
+            owned.add(entry);
+            iterator.remove();
+        }
+        if (owned == null)
+            return Collections.emptyList();
+        Collections.sort(owned);
+        ArrayList<BaseSnackbar> snackbars = new ArrayList<>(owned.size());
+        for (Entry entry : owned)
+            snackbars.add(entry.snackbar);
+        return snackbars;
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    private static boolean isDuplicate(BaseSnackbar a, BaseSnackbar b) {
+        return a.canCollapse() && b.canCollapse()
+                && a.getClass() == b.getClass()
+                && a.view == b.view
+                && TextUtils.equals(a.message, b.message);
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final BaseSnackbar snackbar;
+        final int priority;
+        final long sequence;
+        final long enqueuedAt;
+
+        Entry(BaseSnackbar snackbar, int priority, long sequence, long enqueuedAt) {
+            this.snackbar = snackbar;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            if (priority != other.priority)
+                return Integer.compare(other.priority, priority);
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.better_snacks;
+
+import android.os.SystemClock;
+import android.view.View;
+
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.WeakHashMap;
+
+/**
+ * Queues snackbars per window and shows them in priority order, at most
+ * {@link #setMaxConcurrent(int) maxConcurrent} at a time. Stale low-priority entries and
+ * duplicates are dropped before they are ever inflated. Must be used from the main thread.
+ */
+public final class SnackbarScheduler {
+
+    public static final int PRIORITY_LOW = -1;
+    public static final int PRIORITY_NORMAL = 0;
+    public static final int PRIORITY_HIGH = 1;
+
+    private static final SnackbarScheduler INSTANCE = new SnackbarScheduler();
+
+    private final WeakHashMap<View, SnackbarQueue> lanes = new WeakHashMap<>();
+    private int maxConcurrent = 1;
+    private int maxQueued = 16;
+    private long staleAfterMillis = 5000;
+    private int droppedCount;
+    private int mergedCount;
+
+    private SnackbarScheduler() {
+    }
+
+    public static SnackbarScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Sets how many snackbars may be visible at once in a single window.
+     * Material only keeps one snackbar on screen, so values above 1 are rarely useful.
+     * @param maxConcurrent Number of snackbars, must be at least 1.
+     */
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+
+    /**
+     * Sets how many snackbars may wait per window before the lowest priority one is dropped.
+     * @param maxQueued Number of pending snackbars.
+     */
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = Math.max(1, maxQueued);
+    }
+
+    /**
+     * Sets how long a low-priority snackbar may wait before it is dropped unseen.
+     * @param millis Age in milliseconds.
+     */
+    public void setStaleAfter(long millis) {
+        this.staleAfterMillis = millis;
+    }
+
+    /**
+     * Queues a snackbar for its window and shows it as soon as a slot is free.
+     * A pending snackbar of the same type and message is replaced by this one, unless either
+     * carries callbacks that must run for every request, such as an undo snackbar.
+     * @param snackbar Snackbar to show.
+     */
+    public void enqueue(BaseSnackbar snackbar) {
+        snackbar.bindLifecycle();
+        snackbar.onEnqueued();
+        View root = snackbar.view.getRootView();
+        SnackbarQueue lane = lanes.get(root);
+        if (lane == null) {
+            lane = new SnackbarQueue();
+            lanes.put(root, lane);
+        }
+
+        mergedCount += lane.offer(snackbar, SystemClock.uptimeMillis());
+        if (lane.trimTo(maxQueued))
+            droppedCount++;
+        drain(root, lane);
+    }
+
+    /**
+     * Removes a snackbar that has not been shown yet.
+     * @param snackbar Snackbar previously passed to {@link #enqueue(BaseSnackbar)}.
+     * @return True if it was still pending.
+     */
+    public boolean cancel(BaseSnackbar snackbar) {
+        if (snackbar.view == null)
+            return false;
+        SnackbarQueue lane = lanes.get(snackbar.view.getRootView());
+        if (lane == null || !lane.remove(snackbar))
+            return false;
+        snackbar.onDropped();
+        return true;
+    }
+
+    /**
+     * Takes the pending snackbars of one lifecycle owner out of their lanes. Those of other
+     * owners, such as sibling Fragments, stay queued, and each lane keeps counting the snackbars
+     * still showing so the concurrency limit holds.
+     * @return The removed snackbars, each window's in the order they would have been shown.
+     */
+    List<BaseSnackbar> removeOwnedBy(LifecycleOwner owner) {
+        List<BaseSnackbar> removed = Collections.emptyList();
+        Iterator<SnackbarQueue> iterator = lanes.values().iterator();
+        while (iterator.hasNext()) {
+            SnackbarQueue lane = iterator.next();
+            List<BaseSnackbar> owned = lane.removeOwnedBy(owner);
+            if (!owned.isEmpty()) {
+                if (removed.isEmpty())
+                    removed = new ArrayList<>();
+                removed.addAll(owned);
+            }
+            if (lane.active == 0 && lane.isEmpty())
+                iterator.remove();
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the number of snackbars waiting to be shown across all windows.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (SnackbarQueue lane : lanes.values())
+            depth += lane.size();
+        return depth;
+    }
+
+    /**
+     * Returns the number of snackbars waiting to be shown in the window of the given view.
+     * @param anchor Any view attached to the window.
+     */
+    public int getQueueDepth(View anchor) {
+        SnackbarQueue lane = lanes.get(anchor.getRootView());
+        return lane != null ? lane.size() : 0;
+    }
+
+    /**
+     * Returns how many snackbars were dropped unseen because they went stale or overflowed the queue.
+     */
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Returns how many pending snackbars were replaced by a newer duplicate.
+     */
+    public int getMergedCount() {
+        return mergedCount;
+    }
+
+    private void drain(View root, SnackbarQueue lane) {
+        long now = SystemClock.uptimeMillis();
+        while (lane.active < maxConcurrent && !lane.isEmpty()) {
+            if (lane.headIsStale(now, staleAfterMillis)) {
+                lane.poll().onDropped();
+                droppedCount++;
+                continue;
+            }
+            BaseSnackbar next = lane.poll();
+            lane.active++;
+            next.setDismissListener(() -> onDismissed(root, lane));
+            next.show();
+        }
+        if (lane.active == 0 && lane.isEmpty())
+            lanes.remove(root);
+    }
+
+    private void onDismissed(View root, SnackbarQueue lane) {
+        lane.active--;
+        drain(root, lane);
+    }
+}
@@ -0,0 +1,202 @@
+package com.better_snacks;
+
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps repeated snackbars from piling up. A request with the same type, message and anchor as
+ * a snackbar still showing, made within the window of the previous one, is folded into it: the
+ * live snackbar shows a counter such as "(x12)" and restarts its duration, and the request
+ * never inflates, animates or plays feedback. Sound and vibration of the snackbars that do show
+ * are rate limited by token buckets. Everything runs on the main thread.
+ */
+public final class SnackbarThrottle {
+
+    private static final long DEFAULT_WINDOW = 1000;
+    private static final int DEFAULT_BURST = 2;
+    private static final long DEFAULT_REFILL = 1000;
+
+    private static SnackbarThrottle instance;
+
+    private final ArrayList<Entry> live = new ArrayList<>();
+    private final ArrayList<Entry> spare = new ArrayList<>();
+    private final TokenBucket sounds = new TokenBucket(DEFAULT_BURST, DEFAULT_REFILL);
+    private final TokenBucket vibrations = new TokenBucket(DEFAULT_BURST, DEFAULT_REFILL);
+    private long window = DEFAULT_WINDOW;
+    private long suppressedShows;
+    private long suppressedSounds;
+    private long suppressedVibrations;
+
+    private SnackbarThrottle() {
+    }
+
+    public static SnackbarThrottle getInstance() {
+        if (instance == null)
+            instance = new SnackbarThrottle();
+        return instance;
+    }
+
+    /**
+     * Sets how soon after the previous duplicate a request still counts as a repeat.
+     * @param millis Window in milliseconds, 0 to show every request.
+     */
+    public void setWindow(long millis) {
+        window = Math.max(0, millis);
+    }
+
+    /**
+     * Limits how often snackbars play their sound.
+     * @param burst        Sounds that may play back to back.
+     * @param refillMillis Time for one more sound to become available, 0 for no limit.
+     */
+    public void setSoundLimit(int burst, long refillMillis) {
+        sounds.configure(burst, refillMillis);
+    }
+
+    /**
+     * Limits how often snackbars vibrate.
+     * @param burst        Vibrations that may run back to back.
+     * @param refillMillis Time for one more vibration to become available, 0 for no limit.
+     */
+    public void setVibrationLimit(int burst, long refillMillis) {
+        vibrations.configure(burst, refillMillis);
+    }
+
+    /**
+     * Returns how many show requests were folded into a live snackbar.
+     */
+    public long getSuppressedShowCount() {
+        return suppressedShows;
+    }
+
+    /**
+     * Returns how many sounds were skipped by the rate limit.
+     */
+    public long getSuppressedSoundCount() {
+        return suppressedSounds;
+    }
+
+    /**
+     * Returns how many vibrations were skipped by the rate limit.
+     */
+    public long getSuppressedVibrationCount() {
+        return suppressedVibrations;
+    }
+
+    /**
+     * Sets every suppression counter back to 0.
+     */
+    public void resetCounts() {
+        suppressedShows = 0;
+        suppressedSounds = 0;
+        suppressedVibrations = 0;
+    }
+
+    /**
+     * Folds the snackbar into a live duplicate if there is one, otherwise starts tracking it.
+     * @return True if the snackbar must not be shown.
+     */
+    boolean collapse(BaseSnackbar snackbar) {
+        if (window == 0 || !snackbar.canCollapse())
+            return false;
+        long now = SystemClock.uptimeMillis();
+        for (int i = 0; i < live.size(); i++) {
+            Entry entry = live.get(i);
+            if (entry.snackbar.getClass() != snackbar.getClass()
+                    || entry.anchor != snackbar.view
+                    || !TextUtils.equals(entry.snackbar.message, snackbar.message))
+                continue;
+            if (now - entry.lastRequestAt > window || !entry.snackbar.isActive()) {
+                // Quiet for long enough that this is news again; the new snackbar takes over.
+                recycle(live.remove(i));
+                break;
+            }
+            entry.count++;
+            entry.lastRequestAt = now;
+            suppressedShows++;
+            entry.snackbar.updateMessage(entry.snackbar.message + " (x" + entry.count + ")");
+            entry.snackbar.restartTimeout();
+            return true;
+        }
+        Entry entry = spare.isEmpty() ? new Entry() : spare.remove(spare.size() - 1);
+        entry.snackbar = snackbar;
+        entry.anchor = snackbar.view;
+        entry.count = 1;
+        entry.lastRequestAt = now;
+        live.add(entry);
+        return false;
+    }
+
+    void onDismissed(BaseSnackbar snackbar) {
+        for (int i = live.size() - 1; i >= 0; i--) {
+            if (live.get(i).snackbar == snackbar)
+                recycle(live.remove(i));
+        }
+    }
+
+    private void recycle(Entry entry) {
+        entry.snackbar = null;
+        entry.anchor = null;
+        spare.add(entry);
+    }
+
+    boolean tryPlaySound() {
+        if (sounds.tryAcquire(SystemClock.uptimeMillis()))
+            return true;
+        suppressedSounds++;
+        return false;
+    }
+
+    boolean tryVibrate() {
+        if (vibrations.tryAcquire(SystemClock.uptimeMillis()))
+            return true;
+        suppressedVibrations++;
+        return false;
+    }
+
+    private static final class Entry {
+        BaseSnackbar snackbar;
+        View anchor;
+        int count;
+        long lastRequestAt;
+    }
+
+    /**
+     * Holds up to {@code burst} tokens and adds one every {@code refillMillis}.
+     */
+    static final class TokenBucket {
+        private int burst;
+        private long refillMillis;
+        private int tokens;
+        private long refilledAt;
+
+        TokenBucket(int burst, long refillMillis) {
+            configure(burst, refillMillis);
+        }
+
+        void configure(int burst, long refillMillis) {
+            this.burst = Math.max(1, burst);
+            this.refillMillis = Math.max(0, refillMillis);
+            this.tokens = this.burst;
+            this.refilledAt = SystemClock.uptimeMillis();
+        }
+
+        boolean tryAcquire(long now) {
+            if (refillMillis == 0)
+                return true;
+            long elapsed = now - refilledAt;
+            if (elapsed >= refillMillis) {
+                long added = elapsed / refillMillis;
+                tokens = (int) Math.min(burst, tokens + added);
+                refilledAt = tokens == burst ? now : refilledAt + added * refillMillis;
+            }
+            if (tokens == 0)
+                return false;
+            tokens--;
+            return true;
+        }
+    }
+}
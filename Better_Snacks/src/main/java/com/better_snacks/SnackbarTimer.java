@@ -0,0 +1,132 @@
+package com.better_snacks;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ProcessLifecycleOwner;
+
+import java.util.ArrayList;
+
+/**
+ * Single main-thread timer for every snackbar timeout. Deadlines are kept on the monotonic
+ * {@link SystemClock#uptimeMillis()} clock, paused while the snackbar is touched or the app is
+ * in the background, and nothing is retained once a timeout completes or is cancelled.
+ */
+final class SnackbarTimer implements DefaultLifecycleObserver {
+
+    private static SnackbarTimer instance;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ArrayList<Timeout> running = new ArrayList<>();
+    private boolean appStarted = true;
+
+    private SnackbarTimer() {
+    }
+
+    static SnackbarTimer getInstance() {
+        if (instance == null) {
+            instance = new SnackbarTimer();
+            ProcessLifecycleOwner.get().getLifecycle().addObserver(instance);
+        }
+        return instance;
+    }
+
+    void start(Timeout timeout, long durationMillis) {
+        cancel(timeout);
+        timeout.remaining = durationMillis;
+        timeout.touchPaused = false;
+        running.add(timeout);
+        if (appStarted)
+            schedule(timeout);
+    }
+
+    void cancel(Timeout timeout) {
+        handler.removeCallbacks(timeout);
+        timeout.scheduled = false;
+        running.remove(timeout);
+    }
+
+    void pause(Timeout timeout) {
+        if (timeout.touchPaused || !running.contains(timeout))
+            return;
+        timeout.touchPaused = true;
+        unschedule(timeout);
+    }
+
+    void resume(Timeout timeout) {
+        if (!timeout.touchPaused)
+            return;
+        timeout.touchPaused = false;
+        if (appStarted && running.contains(timeout))
+            schedule(timeout);
+    }
+
+    boolean isRunning(Timeout timeout) {
+        return running.contains(timeout);
+    }
+
+    /**
+     * Returns how many milliseconds the timeout has left, or 0 if it is not running.
+     */
+    long getRemaining(Timeout timeout) {
+        if (!running.contains(timeout))
+            return 0;
+        return timeout.scheduled
+                ? Math.max(0, timeout.deadline - SystemClock.uptimeMillis())
+                : timeout.remaining;
+    }
+
+    private void schedule(Timeout timeout) {
+        timeout.deadline = SystemClock.uptimeMillis() + timeout.remaining;
+        timeout.scheduled = true;
+        handler.postAtTime(timeout, timeout.deadline);
+    }
+
+    private void unschedule(Timeout timeout) {
+        if (!timeout.scheduled)
+            return;
+        handler.removeCallbacks(timeout);
+        timeout.scheduled = false;
+        timeout.remaining = Math.max(0, timeout.deadline - SystemClock.uptimeMillis());
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        appStarted = true;
+        for (int i = 0; i < running.size(); i++) {
+            Timeout timeout = running.get(i);
+            if (!timeout.touchPaused && !timeout.scheduled)
+                schedule(timeout);
+        }
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        appStarted = false;
+        for (int i = 0; i < running.size(); i++)
+            unschedule(running.get(i));
+    }
+
+    static final class Timeout implements Runnable {
+        private final Runnable onExpired;
+        private long remaining;
+        private long deadline;
+        private boolean scheduled;
+        private boolean touchPaused;
+
+        Timeout(Runnable onExpired) {
+            this.onExpired = onExpired;
+        }
+
+        @Override
+        public void run() {
+            scheduled = false;
+            instance.running.remove(this);
+            onExpired.run();
+        }
+    }
+}
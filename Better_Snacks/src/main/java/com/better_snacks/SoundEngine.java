@@ -0,0 +1,151 @@
+package com.better_snacks;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.Configuration;
+import android.media.AudioAttributes;
+import android.media.MediaPlayer;
+import android.media.SoundPool;
+import android.util.SparseBooleanArray;
+import android.util.SparseIntArray;
+
+import java.io.IOException;
+
+/**
+ * Shared audio engine for snackbar sounds. Every registered raw resource is decoded once
+ * into a {@link SoundPool} and replayed from memory; the pool is released on trim-memory.
+ */
+public final class SoundEngine implements ComponentCallbacks2 {
+
+    private static final int MAX_STREAMS = 4;
+
+    private static final AudioAttributes AUDIO_ATTRIBUTES = new AudioAttributes.Builder()
+            .setUsage(AudioAttributes.USAGE_ASSISTANCE_SONIFICATION)
+            .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+            .build();
+
+    private static volatile SoundEngine instance;
+
+    private final Context context;
+    private final SparseIntArray soundIds = new SparseIntArray();
+    private final SparseBooleanArray loadedSounds = new SparseBooleanArray();
+    private SoundPool soundPool;
+
+    private SoundEngine(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Returns the process-wide engine, creating it on first use.
+     * @param context Any context, only its application context is retained.
+     */
+    public static SoundEngine getInstance(Context context) {
+        if (instance == null) {
+            synchronized (SoundEngine.class) {
+                if (instance == null) {
+                    Context appContext = context.getApplicationContext();
+                    SoundEngine engine = new SoundEngine(appContext);
+                    appContext.registerComponentCallbacks(engine);
+                    instance = engine;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts decoding a raw sound resource in the background so later plays are instant.
+     * Registering the same resource twice is a no-op.
+     * @param rawResId Resource ID of the sound.
+     */
+    public synchronized void register(int rawResId) {
+        if (soundIds.indexOfKey(rawResId) >= 0)
+            return;
+        soundIds.put(rawResId, obtainSoundPool().load(context, rawResId, 1));
+    }
+
+    /**
+     * Returns true once the given resource has been decoded and can play with no delay.
+     * @param rawResId Resource ID of the sound.
+     */
+    public synchronized boolean isLoaded(int rawResId) {
+        int index = soundIds.indexOfKey(rawResId);
+        return index >= 0 && loadedSounds.get(soundIds.valueAt(index));
+    }
+
+    /**
+     * Plays a raw sound resource. If it has not finished decoding yet it is registered and
+     * played once through an asynchronously prepared {@link MediaPlayer} instead.
+     * @param rawResId Resource ID of the sound.
+     */
+    public synchronized void play(int rawResId) {
+        if (isLoaded(rawResId)) {
+            soundPool.play(soundIds.get(rawResId), 1f, 1f, 1, 0, 1f);
+            return;
+        }
+        register(rawResId);
+        playFallback(rawResId);
+    }
+
+    /**
+     * Frees every decoded sound. Sounds are decoded again on their next use.
+     */
+    public synchronized void release() {
+        if (soundPool != null) {
+            soundPool.release();
+            soundPool = null;
+        }
+        soundIds.clear();
+        loadedSounds.clear();
+    }
+
+    private SoundPool obtainSoundPool() {
+        if (soundPool == null) {
+            soundPool = new SoundPool.Builder()
+                    .setMaxStreams(MAX_STREAMS)
+                    .setAudioAttributes(AUDIO_ATTRIBUTES)
+                    .build();
+            soundPool.setOnLoadCompleteListener(this::onLoadComplete);
+        }
+        return soundPool;
+    }
+
+    private synchronized void onLoadComplete(SoundPool pool, int soundId, int status) {
+        if (pool == soundPool && status == 0)
+            loadedSounds.put(soundId, true);
+    }
+
+    private void playFallback(int rawResId) {
+        MediaPlayer player = new MediaPlayer();
+        try (AssetFileDescriptor afd = context.getResources().openRawResourceFd(rawResId)) {
+            player.setAudioAttributes(AUDIO_ATTRIBUTES);
+            player.setDataSource(afd.getFileDescriptor(), afd.getStartOffset(), afd.getLength());
+        } catch (IOException | RuntimeException e) {
+            player.release();
+            return;
+        }
+        player.setOnPreparedListener(MediaPlayer::start);
+        player.setOnCompletionListener(MediaPlayer::release);
+        player.setOnErrorListener((mp, what, extra) -> {
+            mp.release();
+            return true;
+        });
+        player.prepareAsync();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_BACKGROUND)
+            release();
+    }
+
+    @Override
+    public void onLowMemory() {
+        release();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.better_snacks;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.drawable.GradientDrawable;
+import android.util.TypedValue;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Styles declared with the {@code betterSnackbarStyle} theme attribute. Each theme is parsed
+ * once into a {@link SnackStyle}; it is parsed again only when the uiMode changes, so day and
+ * night resources both apply without the snackbars reading a TypedArray on every show.
+ */
+final class ThemeSnackStyles {
+
+    private static final Map<Resources.Theme, Entry> cache = new WeakHashMap<>();
+
+    private ThemeSnackStyles() {
+    }
+
+    /**
+     * Returns the style of the context's theme, or {@link SnackStyle#DEFAULT} if it declares none.
+     */
+    static SnackStyle resolve(Context context) {
+        Resources.Theme theme = context.getTheme();
+        int uiMode = context.getResources().getConfiguration().uiMode;
+        synchronized (cache) {
+            Entry entry = cache.get(theme);
+            if (entry == null || entry.uiMode != uiMode) {
+                entry = new Entry(uiMode, parse(context, theme));
+                cache.put(theme, entry);
+            }
+            return entry.style;
+        }
+    }
+
+    private static SnackStyle parse(Context context, Resources.Theme theme) {
+        TypedValue value = new TypedValue();
+        if (!theme.resolveAttribute(R.attr.betterSnackbarStyle, value, true) || value.resourceId == 0)
+            return SnackStyle.DEFAULT;
+
+        SnackStyle.Builder builder = new SnackStyle.Builder();
+        TypedArray a = theme.obtainStyledAttributes(value.resourceId, R.styleable.BetterSnackbar);
+        try {
+            if (a.hasValue(R.styleable.BetterSnackbar_snackLayoutDirection))
+                builder.layoutDirection(a.getInt(R.styleable.BetterSnackbar_snackLayoutDirection, 0));
+            if (a.hasValue(R.styleable.BetterSnackbar_snackBackgroundColor))
+                builder.backgroundColor(a.getColor(R.styleable.BetterSnackbar_snackBackgroundColor, 0));
+            if (a.hasValue(R.styleable.BetterSnackbar_snackTextColor))
+                builder.textColor(a.getColor(R.styleable.BetterSnackbar_snackTextColor, 0));
+            if (a.hasValue(R.styleable.BetterSnackbar_snackActionTextColor))
+                builder.actionTextColor(a.getColor(R.styleable.BetterSnackbar_snackActionTextColor, 0));
+            if (a.hasValue(R.styleable.BetterSnackbar_snackIcon))
+                builder.icon(a.getDrawable(R.styleable.BetterSnackbar_snackIcon));
+            if (a.hasValue(R.styleable.BetterSnackbar_snackIconTint))
+                builder.iconTint(a.getColor(R.styleable.BetterSnackbar_snackIconTint, 0));
+            if (a.hasValue(R.styleable.BetterSnackbar_snackCornerRadius))
+                builder.cornerRadius(a.getDimensionPixelSize(R.styleable.BetterSnackbar_snackCornerRadius, 0));
+            if (a.hasValue(R.styleable.BetterSnackbar_snackBorderWidth))
+                builder.border(a.getColor(R.styleable.BetterSnackbar_snackBorderColor, -1),
+                        a.getDimensionPixelSize(R.styleable.BetterSnackbar_snackBorderWidth, 0));
+            if (a.hasValue(R.styleable.BetterSnackbar_snackGradientStartColor)
+                    && a.hasValue(R.styleable.BetterSnackbar_snackGradientEndColor)) {
+                int[] colors = {
+                        a.getColor(R.styleable.BetterSnackbar_snackGradientStartColor, 0),
+                        a.getColor(R.styleable.BetterSnackbar_snackGradientEndColor, 0)
+                };
+                int orientation = a.getInt(R.styleable.BetterSnackbar_snackGradientOrientation,
+                        GradientDrawable.Orientation.LEFT_RIGHT.ordinal());
+                builder.gradient(colors, GradientDrawable.Orientation.values()[orientation]);
+            }
+            if (a.hasValue(R.styleable.BetterSnackbar_snackAnimation))
+                builder.animation(BaseSnackbar.AnimationType.values()[a.getInt(R.styleable.BetterSnackbar_snackAnimation, 0)]);
+            if (a.hasValue(R.styleable.BetterSnackbar_snackVibrateOnShow))
+                builder.vibrateOnShow(a.getBoolean(R.styleable.BetterSnackbar_snackVibrateOnShow, false));
+            if (a.hasValue(R.styleable.BetterSnackbar_snackVibrationDuration))
+                builder.vibrationDuration(a.getInt(R.styleable.BetterSnackbar_snackVibrationDuration, 0));
+            if (a.hasValue(R.styleable.BetterSnackbar_snackSoundOnShow))
+                builder.soundOnShow(a.getBoolean(R.styleable.BetterSnackbar_snackSoundOnShow, false));
+            if (a.hasValue(R.styleable.BetterSnackbar_snackSound))
+                builder.sound(a.getResourceId(R.styleable.BetterSnackbar_snackSound, 0));
+        } finally {
+            a.recycle();
+        }
+
+        SnackStyle style = builder.build();
+        if (style.soundOnShow)
+            SoundEngine.getInstance(context).register(style.soundResId);
+        return style;
+    }
+
+    private static final class Entry {
+        final int uiMode;
+        final SnackStyle style;
+
+        Entry(int uiMode, SnackStyle style) {
+            this.uiMode = uiMode;
+            this.style = style;
+        }
+    }
+}
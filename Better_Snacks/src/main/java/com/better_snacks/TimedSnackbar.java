@@ -1,40 +1,200 @@
 package com.better_snacks;
 
+import android.animation.ValueAnimator;
 import android.app.Activity;
-import android.os.Handler;
-import android.os.Looper;
+import android.graphics.Rect;
 import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.LinearInterpolator;
 
-import com.google.android.material.snackbar.Snackbar;
+import java.util.ArrayList;
 
 public class TimedSnackbar extends BaseSnackbar {
 
+    public enum Countdown {
+        NONE,
+        BAR,
+        RING
+    }
+
+    private static final float BAR_HEIGHT_DP = 3;
+    private static final float RING_SIZE_DP = 20;
+    private static final float RING_STROKE_DP = 2.5f;
+    private static final float RING_GAP_DP = 8;
+
+    private static final LinearInterpolator LINEAR = new LinearInterpolator();
+
+    /**
+     * Countdowns on screen. A single animator redraws them all and stops once none is left,
+     * so showing a countdown allocates no animator or listeners of its own.
+     */
+    private static final ArrayList<TimedSnackbar> ticking = new ArrayList<>();
+    private static ValueAnimator ticker;
+
     private final Runnable onAction;
     private final Runnable onTimeout;
+    private final Countdown countdown;
+    private final Integer countdownColor;
+
+    private final View.OnLayoutChangeListener countdownBoundsListener =
+            (v, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom) -> updateCountdownBounds(v);
+    private CountdownDrawable countdownDrawable;
+    private View countdownView;
+    private Rect reservedBounds;
 
     private TimedSnackbar(Builder builder) {
         super(builder);
         this.onAction = builder.onAction;
         this.onTimeout = builder.onTimeout;
+        this.countdown = builder.countdown;
+        this.countdownColor = builder.countdownColor;
     }
 
     @Override
     public void show() {
-        Snackbar snackbar = Snackbar.make(view, message, Snackbar.LENGTH_INDEFINITE);
-        if (onAction != null)
-            snackbar.setAction(actionText, v -> onAction.run());
+        showSnackbar();
+    }
+
+    @Override
+    protected boolean hasAction() {
+        return onAction != null;
+    }
+
+    @Override
+    protected void onAction() {
+        onAction.run();
+    }
+
+    @Override
+    boolean canCollapse() {
+        return onTimeout == null;
+    }
+
+    @Override
+    void onSurfaceReady() {
+        if (countdown != Countdown.RING || duration <= 0)
+            return;
+        // Room for the ring is made before the first layout, never while it animates.
+        SnackbarHolder holder = getHolder();
+        if (holder != null) {
+            ViewGroup content = holder.contentLayout;
+            content.setPaddingRelative(content.getPaddingStart(), content.getPaddingTop(),
+                    content.getPaddingEnd() + dp(RING_SIZE_DP + RING_GAP_DP), content.getPaddingBottom());
+        } else {
+            getLiteView().reserveEnd(dp(RING_SIZE_DP + RING_GAP_DP));
+        }
+    }
+
+    @Override
+    void onFirstFrame() {
+        super.onFirstFrame();
+        if (countdown != Countdown.NONE && duration > 0)
+            startCountdown();
+    }
+
+    /**
+     * Adds the countdown to the snackbar's overlay and redraws it every frame from the time
+     * actually left on the timeout, so it follows touch and background pauses exactly.
+     * While paused the progress does not change and the drawable skips the redraw.
+     */
+    private void startCountdown() {
+        SnackbarHolder holder = getHolder();
+        View snackbarView = getSurfaceView();
+        int color = countdownColor != null ? countdownColor
+                : holder != null ? holder.actionView.getCurrentTextColor() : getLiteView().getActionColor();
+        countdownDrawable = new CountdownDrawable(countdown == Countdown.RING, color, dp(RING_STROKE_DP));
+        countdownDrawable.setLayoutDirection(snackbarView.getLayoutDirection());
+        countdownView = snackbarView;
+        snackbarView.addOnLayoutChangeListener(countdownBoundsListener);
+        updateCountdownBounds(snackbarView);
+        snackbarView.getOverlay().add(countdownDrawable);
+
+        if (!ticking.contains(this))
+            ticking.add(this);
+        if (ticker == null) {
+            ticker = ValueAnimator.ofFloat(0f, 1f);
+            ticker.setDuration(1000);
+            ticker.setRepeatCount(ValueAnimator.INFINITE);
+            ticker.setInterpolator(LINEAR);
+            ticker.addUpdateListener(TimedSnackbar::tick);
+        }
+        if (!ticker.isStarted())
+            ticker.start();
+    }
+
+    private static void tick(ValueAnimator animation) {
+        for (int i = 0; i < ticking.size(); i++) {
+            TimedSnackbar snackbar = ticking.get(i);
+            snackbar.countdownDrawable.setProgress(snackbar.getTimeoutProgress());
+        }
+    }
 
-        if (onTimeout != null) {
-            new Handler(Looper.getMainLooper()).postDelayed(() -> {
-                if (snackbar.isShown()) onTimeout.run();
-            }, duration);
+    private void updateCountdownBounds(View snackbarView) {
+        if (countdown == Countdown.BAR) {
+            countdownDrawable.setBounds(0, snackbarView.getHeight() - dp(BAR_HEIGHT_DP),
+                    snackbarView.getWidth(), snackbarView.getHeight());
+            return;
+        }
+        int size = dp(RING_SIZE_DP);
+        int gap = dp(RING_GAP_DP);
+        SnackbarHolder holder = getHolder();
+        if (holder == null) {
+            // The lite view reports the space it kept free, the ring is centered in it.
+            if (reservedBounds == null)
+                reservedBounds = new Rect();
+            Rect reserved = reservedBounds;
+            getLiteView().getReservedBounds(reserved);
+            int left = reserved.centerX() - size / 2;
+            int top = reserved.centerY() - size / 2;
+            countdownDrawable.setBounds(left, top, left + size, top + size);
+            return;
         }
-        applyVisuals(snackbar);
+        ViewGroup content = holder.contentLayout;
+        int top = content.getTop() + (content.getHeight() - size) / 2;
+        int left = snackbarView.getLayoutDirection() == View.LAYOUT_DIRECTION_RTL
+                ? content.getLeft() + gap / 2
+                : content.getRight() - size - gap / 2;
+        countdownDrawable.setBounds(left, top, left + size, top + size);
+    }
+
+    private void stopCountdown() {
+        if (ticking.remove(this) && ticking.isEmpty())
+            ticker.cancel();
+        if (countdownView != null)
+            countdownView.removeOnLayoutChangeListener(countdownBoundsListener);
+        countdownView = null;
+        countdownDrawable = null;
+    }
+
+    @Override
+    void detachForTransfer() {
+        // A lite snackbar keeps its own view across the move, and with it the countdown.
+        if (getHolder() != null)
+            stopCountdown();
+        super.detachForTransfer();
+    }
+
+    @Override
+    void onDismissed(int event) {
+        stopCountdown();
+        super.onDismissed(event);
+    }
+
+    private int dp(float value) {
+        return Math.round(value * view.getResources().getDisplayMetrics().density);
+    }
+
+    @Override
+    protected void onTimeout() {
+        if (onTimeout != null)
+            onTimeout.run();
     }
 
     public static class Builder extends BaseSnackbar.Builder<Builder> {
         private Runnable onAction;
         private Runnable onTimeout;
+        private Countdown countdown = Countdown.NONE;
+        private Integer countdownColor;
 
         /**
          * Initializes builder with a view.
@@ -78,6 +238,25 @@ public class TimedSnackbar extends BaseSnackbar {
             return this;
         }
 
+        /**
+         * Shows how much time is left as a shrinking bar along the bottom edge or an emptying
+         * ring next to the action. It pauses with the timeout and costs no layout while running.
+         * @param countdown Countdown style, {@code NONE} by default.
+         */
+        public Builder countdown(Countdown countdown) {
+            this.countdown = countdown != null ? countdown : Countdown.NONE;
+            return this;
+        }
+
+        /**
+         * Sets the countdown color. Defaults to the action text color.
+         * @param color Color of the bar or ring.
+         */
+        public Builder countdownColor(int color) {
+            this.countdownColor = color;
+            return this;
+        }
+
         /**
          * Builds the Snackbar to be used or shown later.
          */
@@ -92,6 +271,13 @@ public class TimedSnackbar extends BaseSnackbar {
             build().show();
         }
 
+        /**
+         * Builds the Snackbar and queues it with the {@link SnackbarScheduler}.
+         */
+        public void enqueue() {
+            SnackbarScheduler.getInstance().enqueue(build());
+        }
+
         @Override
         protected Builder self() {
             return this;
@@ -1,29 +1,188 @@
 package com.better_snacks;
 
 import android.app.Activity;
+import android.os.SystemClock;
 import android.view.View;
+import android.view.ViewGroup;
 
-import com.google.android.material.snackbar.Snackbar;
+import com.google.android.material.snackbar.BaseTransientBottomBar;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.Executor;
 
 public class UndoSnackbar extends BaseSnackbar {
 
     private final Runnable onUndo;
+    private final Runnable onCommit;
+    private final Executor commitExecutor;
+    private final long batchWindow;
+    private final String batchMessage;
+
+    private ArrayList<Runnable> batch;
+    private ArrayList<PendingCommits.Commit> commits;
+    private int batchSize;
+    private long lastBatchedAt;
+    private ViewGroup batchParent;
 
     private UndoSnackbar(Builder builder) {
         super(builder);
         this.onUndo = builder.onUndo;
+        this.onCommit = builder.onCommit;
+        this.commitExecutor = builder.commitExecutor;
+        this.batchWindow = builder.batchWindow;
+        this.batchMessage = builder.batchMessage;
     }
 
     @Override
     public void show() {
-        Snackbar snackbar = Snackbar.make(view, message, Snackbar.LENGTH_INDEFINITE);
+        if (batchWindow > 0 && !isCarriedOver() && mergeIntoLiveBatch())
+            return;
+        holdCommit();
+        if (batchWindow > 0)
+            startBatch();
+        showSnackbar();
+        if (batchSize > 1)
+            updateMessage(String.format(Locale.getDefault(), batchMessage, batchSize));
+    }
+
+    @Override
+    protected boolean hasAction() {
+        return batchWindow > 0 || onUndo != null || onCommit != null;
+    }
+
+    @Override
+    protected void onAction() {
+        if (batch != null)
+            undoBatch();
+        else if (onUndo != null)
+            onUndo.run();
+    }
+
+    /**
+     * Repeats are never folded by {@link SnackbarThrottle}, each one carries its own undo.
+     * {@link Builder#batchWindow(long)} is the way to merge them.
+     */
+    @Override
+    boolean canCollapse() {
+        return false;
+    }
+
+    /**
+     * Adds this snackbar to the batch showing in the same container, if one was extended
+     * within the batching window. The live snackbar then counts it, restarts its duration and
+     * undoes it together with the rest.
+     */
+    private boolean mergeIntoLiveBatch() {
+        ViewGroup parent = SnackbarPool.findSuitableParent(SnackbarHost.anchorFor(view));
+        Object tag = parent != null ? parent.getTag(R.id.better_snacks_undo_batch) : null;
+        if (!(tag instanceof UndoSnackbar))
+            return false;
+        UndoSnackbar live = (UndoSnackbar) tag;
+        long now = SystemClock.uptimeMillis();
+        if (!live.isActive() || now - live.lastBatchedAt > live.batchWindow)
+            return false;
+
         if (onUndo != null)
-            snackbar.setAction(actionText, v -> onUndo.run());
-        applyVisuals(snackbar);
+            live.batch.add(onUndo);
+        holdCommit();
+        if (commits != null) {
+            // The live snackbar now decides whether the change is undone or committed.
+            if (live.commits == null)
+                live.commits = new ArrayList<>();
+            for (PendingCommits.Commit commit : commits) {
+                commit.owner = live;
+                live.commits.add(commit);
+            }
+            commits = null;
+        }
+        live.batchSize++;
+        live.lastBatchedAt = now;
+        live.updateMessage(String.format(Locale.getDefault(), live.batchMessage, live.batchSize));
+        live.restartTimeout();
+        finishWithoutShowing();
+        return true;
+    }
+
+    /**
+     * Registers the commit the first time the snackbar is queued or shown, so it is committed
+     * even if the snackbar never makes it on screen.
+     */
+    private void holdCommit() {
+        if (onCommit == null || commits != null)
+            return;
+        PendingCommits.Commit commit = new PendingCommits.Commit(onCommit, commitExecutor, this);
+        PendingCommits.getInstance().add(commit);
+        commits = new ArrayList<>();
+        commits.add(commit);
+    }
+
+    private void settleCommits(boolean undone) {
+        if (commits == null)
+            return;
+        PendingCommits pendingCommits = PendingCommits.getInstance();
+        for (PendingCommits.Commit commit : commits) {
+            if (undone)
+                pendingCommits.discard(commit);
+            else
+                pendingCommits.release(commit);
+        }
+        commits = null;
+    }
+
+    @Override
+    void onEnqueued() {
+        holdCommit();
+    }
+
+    /**
+     * A snackbar that never showed could not be undone, so its commit runs.
+     */
+    @Override
+    void onDropped() {
+        settleCommits(false);
+        super.onDropped();
+    }
+
+    private void startBatch() {
+        if (batch == null) {
+            batch = new ArrayList<>();
+            if (onUndo != null)
+                batch.add(onUndo);
+            batchSize = 1;
+        }
+        lastBatchedAt = SystemClock.uptimeMillis();
+        batchParent = SnackbarPool.findSuitableParent(SnackbarHost.anchorFor(view));
+        if (batchParent != null)
+            batchParent.setTag(R.id.better_snacks_undo_batch, this);
+    }
+
+    /**
+     * Undoes the most recent change first, the same order undoing them one at a time would.
+     */
+    private void undoBatch() {
+        for (int i = batch.size() - 1; i >= 0; i--)
+            batch.get(i).run();
+    }
+
+    @Override
+    void onDismissed(int event) {
+        settleCommits(event == BaseTransientBottomBar.BaseCallback.DISMISS_EVENT_ACTION);
+        if (batchParent != null) {
+            if (batchParent.getTag(R.id.better_snacks_undo_batch) == this)
+                batchParent.setTag(R.id.better_snacks_undo_batch, null);
+            batchParent = null;
+        }
+        batch = null;
+        super.onDismissed(event);
     }
 
     public static class Builder extends BaseSnackbar.Builder<Builder> {
         private Runnable onUndo;
+        private Runnable onCommit;
+        private Executor commitExecutor;
+        private long batchWindow;
+        private String batchMessage = "%d items deleted";
 
         /**
          * Initializes builder with a view.
@@ -58,6 +217,40 @@ public class UndoSnackbar extends BaseSnackbar {
             return this;
         }
 
+        /**
+         * Defers the real work of the change until it can no longer be undone: the commit runs
+         * on the executor once the snackbar times out or is dismissed any way other than Undo,
+         * or right away if the app goes to the background first. Undo then only has to revert
+         * the UI. Commits that become due together are submitted as a single task.
+         * @param onCommit Work to run, such as the actual delete.
+         * @param executor Executor to run it on.
+         */
+        public Builder onCommit(Runnable onCommit, Executor executor) {
+            this.onCommit = onCommit;
+            this.commitExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Merges undo snackbars shown in the same container within the given window of each
+         * other into the one already on screen. Its message shows the count, its duration
+         * restarts with each addition, and Undo reverts every merged change.
+         * @param windowMillis Window in milliseconds, 0 to show each snackbar on its own.
+         */
+        public Builder batchWindow(long windowMillis) {
+            this.batchWindow = Math.max(0, windowMillis);
+            return this;
+        }
+
+        /**
+         * Sets the message shown once a batch holds more than one change.
+         * @param format Format string taking the number of changes, e.g. "%d items deleted".
+         */
+        public Builder batchMessage(String format) {
+            this.batchMessage = format;
+            return this;
+        }
+
         /**
          * Builds the Snackbar to be used or shown later.
          */
@@ -72,6 +265,13 @@ public class UndoSnackbar extends BaseSnackbar {
             build().show();
         }
 
+        /**
+         * Builds the Snackbar and queues it with the {@link SnackbarScheduler}.
+         */
+        public void enqueue() {
+            SnackbarScheduler.getInstance().enqueue(build());
+        }
+
         @Override
         protected Builder self() {
             return this;
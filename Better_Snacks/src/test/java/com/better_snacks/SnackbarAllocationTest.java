@@ -0,0 +1,172 @@
+package com.better_snacks;
+
+import android.app.Activity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import static android.os.Looper.getMainLooper;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Counts the bytes a warm show and dismiss cycle allocates on the main thread. Snackbars are
+ * built before measuring and Robolectric's own looper work is measured with an empty cycle and
+ * subtracted, so what is left is the show path of the library and Material. Once warmed up it
+ * reuses the pooled hierarchy, background, icon and listeners, and may allocate at most
+ * {@value #MARGIN_PERCENT}% more per cycle than the committed baseline.
+ * <p>
+ * Record new baselines after an intended change with
+ * {@code ./gradlew :Better_Snacks:testDebugUnitTest --tests '*AllocationTest*' -PrecordAllocations=true}
+ * and commit the updated {@value #BASELINES}. A type without a baseline fails.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class SnackbarAllocationTest {
+
+    private static final int WARM_UP = 5;
+    private static final int CYCLES = 20;
+    // Headroom for allocations that vary between runs, such as a resized collection.
+    static final int MARGIN_PERCENT = 10;
+    static final String BASELINES = "allocation_baselines.properties";
+    private static final String RECORD_PROPERTY = "betterSnacks.recordAllocations";
+    private static final File BASELINE_FILE = new File("src/test/resources/com/better_snacks/" + BASELINES);
+
+    private ActivityController<SnackbarLifecycleTest.TestActivity> controller;
+
+    @Before
+    public void setUp() {
+        assumeTrue("Thread allocation counting is not available", allocationCountingSupported());
+        controller = Robolectric.buildActivity(SnackbarLifecycleTest.TestActivity.class).setup();
+    }
+
+    @After
+    public void tearDown() {
+        if (controller != null)
+            controller.pause().stop().destroy();
+    }
+
+    @Test
+    public void infoSnackbar_warmCycleStaysWithinBudget() throws IOException {
+        assertWithinBudget("Info", activity -> new InfoSnackbar.Builder(activity)
+                .message("Connection lost")
+                .onConfirm(() -> { })
+                .build());
+    }
+
+    @Test
+    public void undoSnackbar_warmCycleStaysWithinBudget() throws IOException {
+        assertWithinBudget("Undo", activity -> new UndoSnackbar.Builder(activity)
+                .message("Item deleted")
+                .onUndo(() -> { })
+                .build());
+    }
+
+    @Test
+    public void timedSnackbar_warmCycleStaysWithinBudget() throws IOException {
+        assertWithinBudget("Timed", activity -> new TimedSnackbar.Builder(activity)
+                .message("Applying changes")
+                .onAction(() -> { })
+                .build());
+    }
+
+    private void assertWithinBudget(String type, Function<Activity, BaseSnackbar> factory) throws IOException {
+        Activity activity = controller.get();
+        for (int i = 0; i < WARM_UP; i++)
+            cycle(factory.apply(activity));
+
+        BaseSnackbar[] snackbars = new BaseSnackbar[CYCLES];
+        for (int i = 0; i < CYCLES; i++)
+            snackbars[i] = factory.apply(activity);
+        long idle = measure(i -> idleCycle()) / CYCLES;
+        long warm = measure(i -> cycle(snackbars[i])) / CYCLES - idle;
+
+        String key = type + ".warmCycleBytes";
+        if (Boolean.getBoolean(RECORD_PROPERTY)) {
+            record(key, warm);
+            return;
+        }
+
+        String recorded = loadBaselines().getProperty(key);
+        assertNotNull("No allocation baseline, record with -PrecordAllocations=true. Measured: "
+                + key + "=" + warm, recorded);
+        long budget = Long.parseLong(recorded) * (100 + MARGIN_PERCENT) / 100;
+        assertTrue("Warm cycle allocated " + warm + " bytes, budget " + budget,
+                warm <= budget);
+    }
+
+    private static void cycle(BaseSnackbar snackbar) {
+        snackbar.show();
+        shadowOf(getMainLooper()).idleFor(Duration.ofSeconds(1));
+        assertTrue(snackbar.isActive());
+        snackbar.dismiss();
+        shadowOf(getMainLooper()).idleFor(Duration.ofSeconds(1));
+        assertFalse(snackbar.isActive());
+    }
+
+    private static void idleCycle() {
+        shadowOf(getMainLooper()).idleFor(Duration.ofSeconds(1));
+        shadowOf(getMainLooper()).idleFor(Duration.ofSeconds(1));
+    }
+
+    private static long measure(IntConsumer cycle) {
+        long start = allocatedBytes();
+        for (int i = 0; i < CYCLES; i++)
+            cycle.accept(i);
+        return allocatedBytes() - start;
+    }
+
+    private static Properties loadBaselines() throws IOException {
+        Properties baselines = new Properties();
+        try (InputStream in = SnackbarAllocationTest.class.getResourceAsStream(BASELINES)) {
+            if (in != null)
+                baselines.load(in);
+        }
+        return baselines;
+    }
+
+    private static synchronized void record(String key, long bytes) throws IOException {
+        Properties baselines = new Properties();
+        if (BASELINE_FILE.exists()) {
+            try (InputStream in = new FileInputStream(BASELINE_FILE)) {
+                baselines.load(in);
+            }
+        }
+        baselines.setProperty(key, Long.toString(bytes));
+        try (OutputStream out = new FileOutputStream(BASELINE_FILE)) {
+            baselines.store(out, "Bytes one warm show and dismiss cycle allocates, see SnackbarAllocationTest");
+        }
+    }
+
+    private static boolean allocationCountingSupported() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled();
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,54 @@
+package com.better_snacks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class SnackbarBuilderTest {
+
+    private ActivityController<SnackbarLifecycleTest.TestActivity> controller;
+
+    @Before
+    public void setUp() {
+        controller = Robolectric.buildActivity(SnackbarLifecycleTest.TestActivity.class).setup();
+    }
+
+    @After
+    public void tearDown() {
+        controller.pause().stop().destroy();
+    }
+
+    @Test
+    public void soundOnShow_beforeSound_usesTheGivenSound() {
+        // The call order of the README example.
+        UndoSnackbar snackbar = new UndoSnackbar.Builder(controller.get())
+                .message("Document archived")
+                .onUndo(() -> { })
+                .vibrateOnShow(true)
+                .soundOnShow(true)
+                .sound(R.raw.default_sound)
+                .build();
+
+        assertTrue(snackbar.style.soundOnShow);
+        assertEquals(R.raw.default_sound, snackbar.style.soundResId);
+    }
+
+    @Test
+    public void soundOnShow_withoutStyleOrSound_usesTheDefaultSound() {
+        InfoSnackbar snackbar = new InfoSnackbar.Builder(controller.get())
+                .soundOnShow(true)
+                .build();
+
+        assertTrue(snackbar.style.soundOnShow);
+        assertEquals(SnackStyle.DEFAULT.soundResId, snackbar.style.soundResId);
+    }
+}
@@ -0,0 +1,237 @@
+package com.better_snacks;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.os.Bundle;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.coordinatorlayout.widget.CoordinatorLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.Robolectric;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Properties;
+
+import static android.os.Looper.getMainLooper;
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Counts the layout work one warm show causes, for every snackbar type and animation: measure,
+ * layout and draw passes of the container, requestLayout calls that reach it, and the depth of
+ * the snackbar's hierarchy. The counts may not go past the committed baselines.
+ * <p>
+ * Record new baselines after an intended change with
+ * {@code ./gradlew :Better_Snacks:testDebugUnitTest --tests '*LayoutCost*' -PrecordLayoutCost=true}
+ * and commit the updated {@value #BASELINES}. A combination without a baseline fails.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(sdk = 34)
+public class SnackbarLayoutCostTest {
+
+    static final String BASELINES = "layout_cost_baselines.properties";
+    private static final String RECORD_PROPERTY = "betterSnacks.recordLayoutCost";
+    private static final File BASELINE_FILE = new File("src/test/resources/com/better_snacks/" + BASELINES);
+
+    private final String type;
+    private final BaseSnackbar.AnimationType animation;
+    private ActivityController<CountingActivity> controller;
+
+    public SnackbarLayoutCostTest(String type, BaseSnackbar.AnimationType animation) {
+        this.type = type;
+        this.animation = animation;
+    }
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "{0} {1}")
+    public static Collection<Object[]> parameters() {
+        ArrayList<Object[]> parameters = new ArrayList<>();
+        for (String type : new String[]{"Info", "Undo", "Timed"}) {
+            for (BaseSnackbar.AnimationType animation : BaseSnackbar.AnimationType.values())
+                parameters.add(new Object[]{type, animation});
+        }
+        return parameters;
+    }
+
+    @Before
+    public void setUp() {
+        controller = Robolectric.buildActivity(CountingActivity.class).setup();
+    }
+
+    @After
+    public void tearDown() {
+        controller.pause().stop().destroy();
+    }
+
+    @Test
+    public void show_staysWithinBaseline() throws IOException {
+        CountingLayout container = controller.get().container;
+
+        // The first show inflates; the one measured reuses the pooled hierarchy.
+        showAndDismiss(build(container));
+
+        BaseSnackbar snackbar = build(container);
+        container.reset();
+        snackbar.show();
+        shadowOf(getMainLooper()).idleFor(Duration.ofSeconds(1));
+
+        Properties measured = new Properties();
+        String key = type + "." + animation;
+        measured.setProperty(key + ".measure", Integer.toString(container.measures));
+        measured.setProperty(key + ".layout", Integer.toString(container.layouts));
+        measured.setProperty(key + ".draw", Integer.toString(container.draws));
+        measured.setProperty(key + ".requestLayout", Integer.toString(container.layoutRequests));
+        measured.setProperty(key + ".depth", Integer.toString(depth(snackbar.getSurfaceView())));
+        snackbar.dismiss();
+
+        if (Boolean.getBoolean(RECORD_PROPERTY)) {
+            record(measured);
+            return;
+        }
+
+        Properties baselines = loadBaselines();
+        StringBuilder missing = new StringBuilder();
+        StringBuilder regressions = new StringBuilder();
+        for (String name : measured.stringPropertyNames()) {
+            String recorded = baselines.getProperty(name);
+            int value = Integer.parseInt(measured.getProperty(name));
+            if (recorded == null) {
+                missing.append('\n').append(name).append('=').append(value);
+                continue;
+            }
+            int baseline = Integer.parseInt(recorded);
+            if (value > baseline)
+                regressions.append('\n').append(name).append(": ").append(value).append(" > ").append(baseline);
+        }
+        // Lists the measured counts, so a run on CI shows what recording would commit.
+        assertTrue("No layout cost baseline, record with -PrecordLayoutCost=true. Measured:" + missing,
+                missing.length() == 0);
+        assertTrue("Layout cost went past the baseline:" + regressions, regressions.length() == 0);
+    }
+
+    private BaseSnackbar build(View anchor) {
+        switch (type) {
+            case "Undo":
+                return new UndoSnackbar.Builder(anchor).message("Item deleted")
+                        .animation(animation).onUndo(() -> { }).build();
+            case "Timed":
+                return new TimedSnackbar.Builder(anchor).message("Applying changes")
+                        .animation(animation).duration(3000).onAction(() -> { }).build();
+            default:
+                return new InfoSnackbar.Builder(anchor).message("For your information")
+                        .animation(animation).onConfirm(() -> { }).build();
+        }
+    }
+
+    private static void showAndDismiss(BaseSnackbar snackbar) {
+        snackbar.show();
+        shadowOf(getMainLooper()).idleFor(Duration.ofSeconds(1));
+        snackbar.dismiss();
+        shadowOf(getMainLooper()).idleFor(Duration.ofSeconds(1));
+    }
+
+    private static int depth(View view) {
+        if (!(view instanceof ViewGroup))
+            return 1;
+        ViewGroup group = (ViewGroup) view;
+        int deepest = 0;
+        for (int i = 0; i < group.getChildCount(); i++)
+            deepest = Math.max(deepest, depth(group.getChildAt(i)));
+        return deepest + 1;
+    }
+
+    private static Properties loadBaselines() throws IOException {
+        Properties baselines = new Properties();
+        try (InputStream in = SnackbarLayoutCostTest.class.getResourceAsStream(BASELINES)) {
+            if (in != null)
+                baselines.load(in);
+        }
+        return baselines;
+    }
+
+    private static synchronized void record(Properties measured) throws IOException {
+        Properties baselines = new Properties();
+        if (BASELINE_FILE.exists()) {
+            try (InputStream in = new FileInputStream(BASELINE_FILE)) {
+                baselines.load(in);
+            }
+        }
+        baselines.putAll(measured);
+        try (OutputStream out = new FileOutputStream(BASELINE_FILE)) {
+            baselines.store(out, "Layout cost of one warm show, see SnackbarLayoutCostTest");
+        }
+    }
+
+    /**
+     * Container the snackbars are shown in, counting the work that reaches it.
+     */
+    static final class CountingLayout extends CoordinatorLayout {
+        int measures;
+        int layouts;
+        int draws;
+        int layoutRequests;
+
+        CountingLayout(Context context) {
+            super(context);
+        }
+
+        void reset() {
+            measures = 0;
+            layouts = 0;
+            draws = 0;
+            layoutRequests = 0;
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measures++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int l, int t, int r, int b) {
+            layouts++;
+            super.onLayout(changed, l, t, r, b);
+        }
+
+        @Override
+        protected void dispatchDraw(Canvas canvas) {
+            draws++;
+            super.dispatchDraw(canvas);
+        }
+
+        @Override
+        public void requestLayout() {
+            layoutRequests++;
+            super.requestLayout();
+        }
+    }
+
+    public static class CountingActivity extends AppCompatActivity {
+        CountingLayout container;
+
+        @Override
+        protected void onCreate(Bundle savedInstanceState) {
+            setTheme(com.google.android.material.R.style.Theme_MaterialComponents_Light);
+            super.onCreate(savedInstanceState);
+            container = new CountingLayout(this);
+            setContentView(container);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.better_snacks;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.lang.ref.WeakReference;
+
+import static android.os.Looper.getMainLooper;
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class SnackbarLifecycleTest {
+
+    @Test
+    public void destroy_releasesQueuedAndShowingSnackbars() {
+        ActivityController<TestActivity> controller = Robolectric.buildActivity(TestActivity.class).setup();
+        WeakReference<Activity> activity = new WeakReference<>(controller.get());
+
+        TimedSnackbar showing = timed(controller.get(), "first");
+        TimedSnackbar queued = timed(controller.get(), "second");
+        SnackbarScheduler.getInstance().enqueue(showing);
+        SnackbarScheduler.getInstance().enqueue(queued);
+        shadowOf(getMainLooper()).idle();
+        assertEquals(1, SnackbarScheduler.getInstance().getQueueDepth());
+
+        controller.pause().stop().destroy();
+        shadowOf(getMainLooper()).idle();
+
+        assertEquals(0, SnackbarScheduler.getInstance().getQueueDepth());
+        assertNull(showing.view);
+        assertNull(queued.view);
+        assertFalse(showing.isActive());
+
+        controller = null;
+        assertCollected(activity);
+    }
+
+    @Test
+    public void recreate_restoresQueuedSnackbarsOnNewActivity() {
+        ActivityController<TestActivity> controller = Robolectric.buildActivity(TestActivity.class).setup();
+        WeakReference<Activity> oldActivity = new WeakReference<>(controller.get());
+
+        TimedSnackbar showing = timed(controller.get(), "first");
+        TimedSnackbar second = timed(controller.get(), "second");
+        TimedSnackbar third = timed(controller.get(), "third");
+        SnackbarScheduler.getInstance().enqueue(showing);
+        SnackbarScheduler.getInstance().enqueue(second);
+        SnackbarScheduler.getInstance().enqueue(third);
+        shadowOf(getMainLooper()).idle();
+
+        controller.recreate();
+        shadowOf(getMainLooper()).idle();
+        Activity newActivity = controller.get();
+
+        assertNull(showing.view);
+        assertNotNull(second.view);
+        assertSame(newActivity.getWindow().getDecorView(), second.view.getRootView());
+        assertSame(newActivity.getWindow().getDecorView(), third.view.getRootView());
+        assertEquals(1, SnackbarScheduler.getInstance().getQueueDepth(second.view));
+
+        newActivity = null;
+        assertCollected(oldActivity);
+
+        controller.pause().stop().destroy();
+        shadowOf(getMainLooper()).idle();
+        assertEquals(0, SnackbarScheduler.getInstance().getQueueDepth());
+    }
+
+    @Test
+    public void ownerDestroy_keepsOtherOwnersQueuedAndLaneCounting() {
+        ActivityController<TestActivity> controller = Robolectric.buildActivity(TestActivity.class).setup();
+        Activity activity = controller.get();
+        TestOwner owner = new TestOwner();
+        owner.lifecycle.setCurrentState(Lifecycle.State.RESUMED);
+
+        TimedSnackbar showing = timed(activity, "first");
+        TimedSnackbar fragments = new TimedSnackbar.Builder(activity)
+                .message("second")
+                .duration(3000)
+                .lifecycleOwner(owner)
+                .build();
+        TimedSnackbar activitys = timed(activity, "third");
+        SnackbarScheduler.getInstance().enqueue(showing);
+        SnackbarScheduler.getInstance().enqueue(fragments);
+        SnackbarScheduler.getInstance().enqueue(activitys);
+        shadowOf(getMainLooper()).idle();
+        assertEquals(2, SnackbarScheduler.getInstance().getQueueDepth());
+
+        owner.lifecycle.setCurrentState(Lifecycle.State.DESTROYED);
+        shadowOf(getMainLooper()).idle();
+
+        assertNull(fragments.view);
+        assertTrue(showing.isActive());
+        assertEquals(1, SnackbarScheduler.getInstance().getQueueDepth());
+
+        // The lane still counts the snackbar on screen, so a new one waits for it.
+        TimedSnackbar later = timed(activity, "fourth");
+        SnackbarScheduler.getInstance().enqueue(later);
+        shadowOf(getMainLooper()).idle();
+        assertFalse(later.isActive());
+        assertEquals(2, SnackbarScheduler.getInstance().getQueueDepth());
+
+        controller.pause().stop().destroy();
+        shadowOf(getMainLooper()).idle();
+        assertEquals(0, SnackbarScheduler.getInstance().getQueueDepth());
+    }
+
+    private static TimedSnackbar timed(Activity activity, String message) {
+        return new TimedSnackbar.Builder(activity)
+                .message(message)
+                .duration(3000)
+                .build();
+    }
+
+    private static void assertCollected(WeakReference<?> reference) {
+        for (int i = 0; i < 10 && reference.get() != null; i++) {
+            System.gc();
+            System.runFinalization();
+            byte[][] pressure = new byte[16][];
+            for (int j = 0; j < pressure.length; j++)
+                pressure[j] = new byte[1 << 20];
+        }
+        assertNull("Activity is still reachable after destroy", reference.get());
+    }
+
+    /**
+     * Stands in for a Fragment's view lifecycle.
+     */
+    private static final class TestOwner implements LifecycleOwner {
+        final LifecycleRegistry lifecycle = LifecycleRegistry.createUnsafe(this);
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return lifecycle;
+        }
+    }
+
+    public static class TestActivity extends AppCompatActivity {
+        @Override
+        protected void onCreate(Bundle savedInstanceState) {
+            setTheme(com.google.android.material.R.style.Theme_MaterialComponents_Light);
+            super.onCreate(savedInstanceState);
+            setContentView(new FrameLayout(this));
+        }
+    }
+}
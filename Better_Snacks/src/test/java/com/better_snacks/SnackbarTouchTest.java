@@ -0,0 +1,100 @@
+package com.better_snacks;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.time.Duration;
+
+import static android.os.Looper.getMainLooper;
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class SnackbarTouchTest {
+
+    private ActivityController<SnackbarLifecycleTest.TestActivity> controller;
+
+    @Before
+    public void setUp() {
+        controller = Robolectric.buildActivity(SnackbarLifecycleTest.TestActivity.class).setup();
+    }
+
+    @After
+    public void tearDown() {
+        controller.pause().stop().destroy();
+    }
+
+    @Test
+    public void tapOnBody_isConsumedAndTimeoutStillFires() {
+        InfoSnackbar snackbar = new InfoSnackbar.Builder(controller.get())
+                .message("Connection lost")
+                .duration(2000)
+                .build();
+        snackbar.show();
+        shadowOf(getMainLooper()).idleFor(Duration.ofMillis(500));
+        View body = snackbar.getSurfaceView();
+
+        assertTrue(touch(body, MotionEvent.ACTION_DOWN));
+        // Held down, the timeout waits.
+        shadowOf(getMainLooper()).idleFor(Duration.ofSeconds(3));
+        assertTrue(snackbar.isActive());
+
+        assertTrue(touch(body, MotionEvent.ACTION_UP));
+        shadowOf(getMainLooper()).idleFor(Duration.ofSeconds(3));
+        assertFalse(snackbar.isActive());
+    }
+
+    @Test
+    public void cancelledTouch_resumesTimeout() {
+        InfoSnackbar snackbar = new InfoSnackbar.Builder(controller.get())
+                .message("Connection lost")
+                .duration(2000)
+                .build();
+        snackbar.show();
+        shadowOf(getMainLooper()).idleFor(Duration.ofMillis(500));
+        View body = snackbar.getSurfaceView();
+
+        touch(body, MotionEvent.ACTION_DOWN);
+        touch(body, MotionEvent.ACTION_CANCEL);
+        shadowOf(getMainLooper()).idleFor(Duration.ofSeconds(3));
+        assertFalse(snackbar.isActive());
+    }
+
+    @Test
+    public void actionClick_runsOneExitAndReportsTheAction() {
+        boolean[] undone = new boolean[1];
+        UndoSnackbar snackbar = new UndoSnackbar.Builder(controller.get())
+                .message("Document archived")
+                .onUndo(() -> undone[0] = true)
+                .build();
+        snackbar.show();
+        shadowOf(getMainLooper()).idleFor(Duration.ofMillis(500));
+
+        snackbar.getSurfaceView().findViewById(com.google.android.material.R.id.snackbar_action).performClick();
+        // Our exit alone; Material's would add its own on top.
+        shadowOf(getMainLooper()).idleFor(Duration.ofMillis(SnackbarAnimator.EXIT_DURATION + 50));
+        assertTrue(undone[0]);
+        assertFalse(snackbar.isActive());
+    }
+
+    private static boolean touch(View view, int action) {
+        long now = SystemClock.uptimeMillis();
+        MotionEvent event = MotionEvent.obtain(now, now, action, 1, 1, 0);
+        try {
+            return view.dispatchTouchEvent(event);
+        } finally {
+            event.recycle();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+import com.android.build.api.attributes.BuildTypeAttr
+import java.util.zip.ZipFile
+
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+/**
+ * Pulls classes.jar out of an AAR, so the library's Android dependencies can sit on a JVM classpath.
+ */
+abstract class AarToJar : TransformAction<TransformParameters.None> {
+    @get:InputArtifact
+    abstract val aar: Provider<FileSystemLocation>
+
+    override fun transform(outputs: TransformOutputs) {
+        val input = aar.get().asFile
+        ZipFile(input).use { zip ->
+            val classes = zip.getEntry("classes.jar") ?: return
+            val jar = outputs.file(input.nameWithoutExtension + ".jar")
+            zip.getInputStream(classes).use { source -> jar.outputStream().use { source.copyTo(it) } }
+        }
+    }
+}
+
+/**
+ * Hands the library's own classes jar on unchanged under the plain jar artifact type.
+ */
+abstract class ClassesJarToJar : TransformAction<TransformParameters.None> {
+    @get:InputArtifact
+    abstract val classesJar: Provider<FileSystemLocation>
+
+    override fun transform(outputs: TransformOutputs) {
+        outputs.file(classesJar)
+    }
+}
+
+/**
+ * Writes the R class for a library's R.txt, with non-final fields like the one an app generates.
+ */
+abstract class GenerateR : DefaultTask() {
+    @get:InputFiles
+    abstract val symbols: ConfigurableFileCollection
+
+    @get:Input
+    abstract val packageName: Property<String>
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @TaskAction
+    fun generate() {
+        // "int raw default_sound 0x7f0e0000" or "int[] styleable Name { 0x7f010000, 0x7f010001 }"
+        val fields = sortedMapOf<String, MutableList<String>>()
+        symbols.files.flatMap { it.readLines() }.forEach { line ->
+            val parts = line.trim().split(' ', limit = 4)
+            if (parts.size == 4)
+                fields.getOrPut(parts[1]) { mutableListOf() }
+                    .add("        public static ${parts[0]} ${parts[2]} = ${parts[3]};")
+        }
+        val source = buildString {
+            appendLine("package ${packageName.get()};")
+            appendLine()
+            appendLine("public final class R {")
+            fields.forEach { (type, lines) ->
+                appendLine("    public static final class $type {")
+                lines.forEach { appendLine(it) }
+                appendLine("    }")
+            }
+            appendLine("}")
+        }
+        val file = outputDir.file(packageName.get().replace('.', '/') + "/R.java").get().asFile
+        file.parentFile.mkdirs()
+        file.writeText(source)
+    }
+}
+
+val artifactType = ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE
+
+// The library and everything it depends on at runtime (material, appcompat, lifecycle,
+// tracing) resolve through Gradle's variant matching to the release build type, as plain jars.
+listOf("jmhCompileClasspath", "jmhRuntimeClasspath").forEach { name ->
+    configurations.named(name) {
+        attributes {
+            attribute(BuildTypeAttr.ATTRIBUTE, objects.named("release"))
+            attribute(artifactType, ArtifactTypeDefinition.JAR_TYPE)
+        }
+    }
+}
+
+// An app normally generates the library's R class; here it is built from the R.txt the library
+// publishes to its consumers, picked out of the same resolved classpath.
+val generateR = tasks.register<GenerateR>("generateLibraryR") {
+    symbols.from(configurations.named("jmhRuntimeClasspath").map { classpath ->
+        classpath.incoming.artifactView {
+            attributes { attribute(artifactType, "android-symbol") }
+            componentFilter { it is ProjectComponentIdentifier && it.projectPath == ":Better_Snacks" }
+        }.files
+    })
+    packageName.set("com.better_snacks")
+    outputDir.set(layout.buildDirectory.dir("generated/sources/r/jmh"))
+}
+
+sourceSets.named("jmh") {
+    java.srcDir(generateR)
+}
+
+dependencies {
+    registerTransform(AarToJar::class) {
+        from.attribute(artifactType, "aar")
+        to.attribute(artifactType, ArtifactTypeDefinition.JAR_TYPE)
+    }
+    registerTransform(ClassesJarToJar::class) {
+        from.attribute(artifactType, "android-classes-jar")
+        to.attribute(artifactType, ArtifactTypeDefinition.JAR_TYPE)
+    }
+
+    jmh(project(":Better_Snacks"))
+    // Real framework classes for the pure-Java parts exercised here; nothing benchmarked
+    // touches native graphics or a device.
+    jmh(libs.android.all)
+    jmh(libs.jmh.core)
+    jmhAnnotationProcessor(libs.jmh.generator.annprocess)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    timeUnit.set("s")
+    benchmarkMode.set(listOf("thrpt"))
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+}
@@ -0,0 +1,55 @@
+package com.better_snacks;
+
+import android.graphics.drawable.GradientDrawable;
+import android.util.LruCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookup half of {@link BackgroundCache#obtain}: building the style key and
+ * finding it in the LRU. Creating the drawable itself needs native graphics and is left out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BackgroundBenchmark {
+
+    private static final int[] GRADIENT = {0xFF3F51B5, 0xFF2196F3};
+
+    private final LruCache<BackgroundCache.Key, Object> cache = new LruCache<>(16);
+
+    @Setup
+    public void setUp() {
+        cache.put(new BackgroundCache.Key(8, 0xFF4CAF50, null, null, 0, -1), new Object());
+        cache.put(new BackgroundCache.Key(12, null, GRADIENT, GradientDrawable.Orientation.LEFT_RIGHT, 0, -1), new Object());
+        cache.put(new BackgroundCache.Key(0, 0xFF000000, null, null, 3, 0xFFFFFFFF), new Object());
+    }
+
+    @Benchmark
+    public Object solidHit() {
+        return cache.get(new BackgroundCache.Key(8, 0xFF4CAF50, null, null, 0, -1));
+    }
+
+    @Benchmark
+    public Object gradientHit() {
+        return cache.get(new BackgroundCache.Key(12, null, GRADIENT, GradientDrawable.Orientation.LEFT_RIGHT, 0, -1));
+    }
+
+    @Benchmark
+    public Object borderHit() {
+        return cache.get(new BackgroundCache.Key(0, 0xFF000000, null, null, 3, 0xFFFFFFFF));
+    }
+
+    @Benchmark
+    public Object miss() {
+        return cache.get(new BackgroundCache.Key(4, 0xFF123456, null, null, 0, -1));
+    }
+}
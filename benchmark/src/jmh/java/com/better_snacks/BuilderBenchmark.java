@@ -0,0 +1,77 @@
+package com.better_snacks;
+
+import android.graphics.drawable.GradientDrawable;
+import android.view.View;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BuilderBenchmark {
+
+    private static final int[] GRADIENT = {0xFF3F51B5, 0xFF2196F3};
+
+    private final Runnable noop = () -> { };
+
+    @Benchmark
+    public UndoSnackbar.Builder undoBuilderChain() {
+        return new UndoSnackbar.Builder((View) null)
+                .message("Document archived")
+                .actionText("Restore")
+                .onUndo(noop)
+                .animation(BaseSnackbar.AnimationType.SLIDE_IN_BOTTOM)
+                .vibrateOnShow(true)
+                .vibrationDuration(200)
+                .backgroundColor(0xFF4CAF50)
+                .textColor(0xFFFFFFFF)
+                .actionTextColor(0xFFFFFF00)
+                .cornerRadius(8);
+    }
+
+    @Benchmark
+    public UndoSnackbar buildUndo() {
+        return undoBuilderChain().build();
+    }
+
+    @Benchmark
+    public InfoSnackbar buildInfo() {
+        return new InfoSnackbar.Builder((View) null)
+                .message("New messages available")
+                .actionText("View")
+                .onConfirm(noop)
+                .animation(BaseSnackbar.AnimationType.FADE_IN)
+                .gradient(GRADIENT, GradientDrawable.Orientation.LEFT_RIGHT)
+                .textColor(0xFFFFFFFF)
+                .cornerRadius(12)
+                .build();
+    }
+
+    @Benchmark
+    public TimedSnackbar buildTimed() {
+        return new TimedSnackbar.Builder((View) null)
+                .message("שומר נתונים...")
+                .actionText("בטל")
+                .onAction(noop)
+                .onTimeout(noop)
+                .duration(5000)
+                .layoutDirection(View.LAYOUT_DIRECTION_RTL)
+                .backgroundColor(0xFF000000)
+                .textColor(0xFF00FF00)
+                .actionTextColor(0xFFFF0000)
+                .border(0xFFFFFFFF, 3)
+                .build();
+    }
+
+    @Benchmark
+    public InfoSnackbar buildDefaults() {
+        return new InfoSnackbar.Builder((View) null).build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.better_snacks;
+
+import android.view.View;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a burst of snackbars through the per-window queue used by {@link SnackbarScheduler}:
+ * merging duplicates, trimming overflow, skipping stale entries and draining in priority order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class QueueBenchmark {
+
+    private static final int MAX_QUEUED = 16;
+    private static final long STALE_AFTER = 5000;
+
+    @Param({"1", "8", "64"})
+    public int burst;
+
+    private BaseSnackbar[] snackbars;
+
+    @Setup
+    public void setUp() {
+        snackbars = new BaseSnackbar[burst];
+        for (int i = 0; i < burst; i++) {
+            int priority = i % 3 == 0 ? SnackbarScheduler.PRIORITY_LOW
+                    : i % 3 == 1 ? SnackbarScheduler.PRIORITY_NORMAL
+                    : SnackbarScheduler.PRIORITY_HIGH;
+            snackbars[i] = new InfoSnackbar.Builder((View) null)
+                    .message(i % 4 == 0 ? "Connection lost" : "Synced item " + i)
+                    .priority(priority)
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public int enqueueAndDrain() {
+        SnackbarQueue queue = new SnackbarQueue();
+        long now = 0;
+        for (BaseSnackbar snackbar : snackbars) {
+            queue.offer(snackbar, now++);
+            queue.trimTo(MAX_QUEUED);
+        }
+        int shown = 0;
+        now += STALE_AFTER / 2;
+        while (!queue.isEmpty()) {
+            if (queue.headIsStale(now, STALE_AFTER)) {
+                queue.poll();
+                continue;
+            }
+            queue.poll();
+            shown++;
+            now += 1000;
+        }
+        return shown;
+    }
+}
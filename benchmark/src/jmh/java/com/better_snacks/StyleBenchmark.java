@@ -0,0 +1,67 @@
+package com.better_snacks;
+
+import android.view.View;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StyleBenchmark {
+
+    private final SnackStyle shared = new SnackStyle.Builder()
+            .backgroundColor(0xFF3F51B5)
+            .textColor(0xFFFFFFFF)
+            .actionTextColor(0xFFFFEB3B)
+            .cornerRadius(12)
+            .layoutDirection(View.LAYOUT_DIRECTION_RTL)
+            .animation(BaseSnackbar.AnimationType.FADE_IN)
+            .build();
+
+    @Benchmark
+    public SnackStyle buildStyle() {
+        return new SnackStyle.Builder()
+                .backgroundColor(0xFF3F51B5)
+                .textColor(0xFFFFFFFF)
+                .actionTextColor(0xFFFFEB3B)
+                .cornerRadius(12)
+                .animation(BaseSnackbar.AnimationType.FADE_IN)
+                .build();
+    }
+
+    @Benchmark
+    public SnackStyle deriveStyle() {
+        return new SnackStyle.Builder(shared)
+                .textColor(0xFF00FF00)
+                .build();
+    }
+
+    @Benchmark
+    public InfoSnackbar flyweightSnackbar() {
+        return new InfoSnackbar.Builder((View) null)
+                .style(shared)
+                .message("Settings saved")
+                .build();
+    }
+
+    @Benchmark
+    public InfoSnackbar overriddenSnackbar() {
+        return new InfoSnackbar.Builder((View) null)
+                .style(shared)
+                .message("Settings saved")
+                .backgroundColor(0xFF4CAF50)
+                .build();
+    }
+
+    @Benchmark
+    public int resolveLayoutDirection() {
+        return shared.resolveLayoutDirection(null);
+    }
+}
@@ -25,3 +25,4 @@ dependencyResolutionManagement {
 rootProject.name = "BetterSnacks"
 include(":app")
 include(":Better_Snacks")
+include(":benchmark")